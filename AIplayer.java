@@ -1,6 +1,3 @@
-import javax.print.attribute.standard.PresentationDirection;
-import javax.swing.*;
-import java.util.Arrays;
 import java.util.Random;
 
 /**
@@ -19,14 +16,121 @@ public class AIplayer implements Player {
     private Status winner;
     private int size;  //size of the board
     private GameLogic gl;  //pointer to gameLogic
-    private Status[][] board;   //board to keep truck for the AI
+    private BitBoard board;   //board to keep truck for the AI
+    private ThreatTracker threats;  //cells where either player can win next
+    private Search search;    //game tree search, or null to use the pattern checks
+    private OpeningBook book;   //opening moves for this board size, or null
+    private boolean useBook = true;     //false to search the opening moves too
+    private Random random;  //picks a column when no pattern is found
+    private Ponderer ponderer;  //searches during the turn of the opponent, or null
+    private Solver solver;  //plays perfectly near the end of the game, or null
+    private static final int SOLVE_EMPTY = 24;  //empty cells left when the solver takes over
+    private final EngineMetrics metrics = EngineMetrics.get();  //counters published over JMX
+
+
+    /**
+     * //------------------------------------------------------
+     * // AIplayer
+     * //
+     * // PURPOSE: constructor for an AI that picks moves with the pattern checks
+     * //          described in getMove.
+     * //------------------------------------------------------
+     **/
+    public AIplayer() {
+        this(null);
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // AIplayer
+     * //
+     * // PURPOSE: constructor for an AI that picks moves with a game tree search.
+     * //
+     * // PARAMETERS:
+     * //      search - the search to use, or null to use the pattern checks.
+     * //------------------------------------------------------
+     **/
+    public AIplayer(Search search) {
+        this(search, new Random());
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // AIplayer
+     * //
+     * // PURPOSE: constructor that also sets where random choices come from, so a
+     * //          game can be played again the same way from the same seed.
+     * //
+     * // PARAMETERS:
+     * //      search - the search to use, or null to use the pattern checks.
+     * //      random - the source of random columns.
+     * //------------------------------------------------------
+     **/
+    public AIplayer(Search search, Random random) {
+        this.search = search;
+        this.random = random;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // setPonderer
+     * //
+     * // PURPOSE: lets the AI search during the turn of the opponent. Only useful
+     * //          with a search sharing the table of the ponderer, and only when
+     * //          the opponent takes time to answer, like the human.
+     * //
+     * // PARAMETERS:
+     * //      ponderer - the ponderer, or null for none.
+     * //------------------------------------------------------
+     **/
+    public void setPonderer(Ponderer ponderer) {
+        this.ponderer = ponderer;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // setSolver
+     * //
+     * // PURPOSE: lets the AI play perfectly once at most SOLVE_EMPTY cells are
+     * //          left. A position the solver cannot finish within its node limit,
+     * //          or before its stop flag is set, is played as before.
+     * //
+     * // PARAMETERS:
+     * //      solver - the solver for the size of the board, or null for none.
+     * //------------------------------------------------------
+     **/
+    public void setSolver(Solver solver) {
+        this.solver = solver;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // setUseBook
+     * //
+     * // PURPOSE: chooses whether a searching AI looks up its first moves in the
+     * //          opening book. Must be called before setInfo.
+     * //
+     * // PARAMETERS:
+     * //      useBook - false to search the opening moves too.
+     * //------------------------------------------------------
+     **/
+    public void setUseBook(boolean useBook) {
+        this.useBook = useBook;
+    }
+
 
     /**
      * //------------------------------------------------------
      * // setInfo
      * //
      * // PURPOSE: called before any other action. Sets the gl and size of the board.
-     * //          Also create an identical board to keep truck for where the AI should play.
+     * //          Also create an identical board to keep truck for where the AI should play,
+     * //          and open the opening book for this size when searching.
      * //
      * // PARAMETERS:
      * //      size - the size of the board
@@ -37,6 +141,8 @@ public class AIplayer implements Player {
         this.size = size;
         this.gl = gl;
         createBoard();
+        if (search != null && useBook)
+            book = OpeningBook.forSize(size);
     }
 
 
@@ -46,7 +152,8 @@ public class AIplayer implements Player {
      * //
      * // PURPOSE: called to indicate the last move of the opponent.
      * //          Also add the opponent move and the current move of AI
-     * //          to the current board.
+     * //          to the current board. With a ponderer, the pondering is
+     * //          stopped first and started again after the move.
      * //
      * // PARAMETERS:
      * //      lastCol - column where the opponent played.
@@ -54,66 +161,69 @@ public class AIplayer implements Player {
      **/
     public void lastMove(int lastCol) {
         this.lastCol = lastCol;
+        if (ponderer != null)
+            ponderer.stop();
         if (lastCol != -1)
             addBoard(lastCol, Status.ONE);
+        long start = System.nanoTime();
         int move = getMove();
+        metrics.moveChosen(System.nanoTime() - start);
         addBoard(move, Status.TWO);
+        if (ponderer != null && !board.isWinAt(move) && board.legalMoves() != 0)
+            ponderer.start(board, Status.ONE);
         gl.setAnswer(move);
     }
 
 
     /**
      * //------------------------------------------------------
-     * // createBoard
+     * // restoreMove
+     * //
+     * // PURPOSE: called when a saved game is resumed, once for every move
+     * //          already played. Adds the move to the current board. For a move
+     * //          of its own that the pattern checks left to chance, the column is
+     * //          drawn again, so the random choices after it are the ones the
+     * //          game would have made.
      * //
-     * // PURPOSE: called to create an extra board and initialize
-     * //          it to NEITHER player.
+     * // PARAMETERS:
+     * //      col - the column of the move.
+     * //      own - true if the AI made the move.
      * //------------------------------------------------------
      **/
-    private void createBoard() {
-        board = new Status[size][size];
-        for (Status[] s : board) {
-            Arrays.fill(s, Status.NEITHER);
-        }
+    public void restoreMove(int col, boolean own) {
+        if (own && search == null && solver == null && defensive() == -1 && offensive() == -1)
+            randomColumn();
+        addBoard(col, own ? Status.TWO : Status.ONE);
     }
 
 
     /**
      * //------------------------------------------------------
-     * // addBoard
-     * //
-     * // PURPOSE: called to add a player to the current board.
+     * // createBoard
      * //
-     * // PARAMETERS:
-     * //      col - the col where to add the player.
-     * //      status - what player to add - Human or AI?
+     * // PURPOSE: called to create an extra empty board.
      * //------------------------------------------------------
      **/
-    private void addBoard(int col, Status status) {
-        int posn = drop(col);
-        board[posn][col] = status;
+    private void createBoard() {
+        board = new BitBoard(size);
+        threats = new ThreatTracker(size);
     }
 
 
     /**
      * //------------------------------------------------------
-     * // drop
+     * // addBoard
      * //
-     * // PURPOSE:a private helper method that finds the position of a marker
-     * //         when it is dropped in a column.
+     * // PURPOSE: called to add a player to the current board.
      * //
      * // PARAMETERS:
-     * //      col - the column where the piece is dropped.
-     * //RETURN:
-     * //      return the row where the piece lands
+     * //      col - the col where to add the player.
+     * //      status - what player to add - Human or AI?
      * //------------------------------------------------------
      **/
-    private int drop(int col) {
-        int posn = 0;
-        while (posn < size && board[posn][col] == Status.NEITHER) {
-            posn++;
-        }
-        return posn - 1;
+    private void addBoard(int col, Status status) {
+        board.play(col, status);
+        threats.place(board, col, status);
     }
 
 
@@ -126,6 +236,9 @@ public class AIplayer implements Player {
      * //          assignment. First check if can be played defensive,
      * //          otherwise offensive, and if neither than randomly
      * //          assign a position to play for the AI player.
+     * //          If a search was given, the search picks the move instead,
+     * //          unless the position is in the opening book. Near the end of
+     * //          the game the solver, if any, picks the perfect move.
      * //
      * // RETURN:
      * //          return an integer as a position to move.
@@ -134,6 +247,19 @@ public class AIplayer implements Player {
     private int getMove() {
         int position;
 
+        if (book != null) {
+            position = book.lookup(board, Status.TWO);
+            if (position != -1 && !board.isFull(position))
+                return position;
+        }
+        if (solver != null && size * size - board.getMoves() <= SOLVE_EMPTY) {
+            position = solver.bestMove(board, Status.TWO);
+            if (position != -1)
+                return position;
+        }
+        if (search != null)
+            return search.bestMove(board, Status.TWO);
+
         position = defensive();
         if (position != -1)
             return position;
@@ -142,290 +268,113 @@ public class AIplayer implements Player {
         if (position != -1)
             return position;
 
-        Random random = new Random();
-        return random.nextInt(size);
+        return randomColumn();
     }
 
 
     /**
      * //------------------------------------------------------
-     * // defensive
+     * // randomColumn
      * //
-     * // PURPOSE: private helper method to check if AI can be played
-     * //          defensive. That is, check 3 columns to the right
-     * //          OR 3 columns to the top OR 3 columns diagonally to the
-     * //          right and to the left. If there is a patter of Human than return
-     * //          position or -1.
+     * // PURPOSE: private helper method that picks a column that is not full at
+     * //          random, with one draw from random.
      * //
      * // RETURN:
-     * //          return an integer that the position we found that the
-     * //          AI should move. If we did not find, return -1.
+     * //          return the column.
      * //------------------------------------------------------
      **/
-    private int defensive() {
-        int counter = 3;
-        int pos = -1;
-        for (int row = size - 1; row >= 0; row--) {
-
-            for (int col = 0; col < size; col++) {
-
-                //call other private helper methods to search for a pattern of the human that might win
-                //Then return the position if found where to play.
-                pos = checkRowRight(row, col, Status.ONE);
-                if (pos != -1)
-                    return pos;
-
-                pos = checkRowLeft(row, col, Status.ONE);
-                if (pos != -1)
-                    return pos;
-
-                pos = checkCol(row, col, Status.ONE);
-                if (pos != -1)
-                    return pos;
-
-                pos = checkDiagonalRight(row, col, Status.ONE);
-                if (pos != -1)
-                    return pos;
-
-                pos = checkDiagonalLeft(row, col, Status.ONE);
-                if (pos != -1)
-                    return pos;
-            }
+    private int randomColumn() {
+        int legal = board.legalMoves();
+        for (int k = random.nextInt(Integer.bitCount(legal)); k > 0; k--) {
+            legal &= legal - 1;
         }
-        return -1;
+        return Integer.numberOfTrailingZeros(legal);
     }
 
 
     /**
      * //------------------------------------------------------
-     * // offensive
+     * // defensive
      * //
      * // PURPOSE: private helper method to check if AI can be played
-     * //          offensive. That is, check 3 columns to the right
-     * //          OR 3 columns to the top OR 3 columns diagonally to the
-     * //          right and to the left. If there is a patter of AI, than return
-     * //          position.
+     * //          defensive. That is, check if the human has three pieces in any
+     * //          row, column or diagonal line of four (with or without a gap) whose
+     * //          last cell can be played now. The threat tracker already knows
+     * //          those columns, so no scan of the board is needed.
      * //
      * // RETURN:
      * //          return an integer that the position we found that the
-     * //          AI should move in order to win. If we did not find, return -1.
-     * //------------------------------------------------------
-     **/
-    private int offensive() {
-        int counter = 3;
-        int pos;
-        for (int row = size - 1; row >= 0; row--) {
-
-            for (int col = 0; col < size; col++) {
-
-                //call other private helper methods to search for a pattern of the AI that might win
-                //Then return the position if found a place to play.
-                pos = checkRowRight(row, col, Status.TWO);
-                if (pos != -1)
-                    return pos;
-
-                pos = checkRowLeft(row, col, Status.TWO);
-                if (pos != -1)
-                    return pos;
-
-                pos = checkCol(row, col, Status.TWO);
-                if (pos != -1)
-                    return pos;
-
-                pos = checkDiagonalRight(row, col, Status.TWO);
-                if (pos != -1)
-                    return pos;
-
-                pos = checkDiagonalLeft(row, col, Status.TWO);
-                if (pos != -1)
-                    return pos;
-            }
-        }
-        return -1;
-    }
-
-
-    /**
-     * //------------------------------------------------------
-     * // checkRowRight
-     * //
-     * // PURPOSE: private helper method that is called from defensive/
-     * //          offensive methods. It check the row to right, 3 columns in total
-     * //          and if there is a pattern of the same player, then return true.
-     * //
-     * // PARAMETERS:
-     * //      row - the row to start searching from.
-     * //      col - the col to start searching from.
-     * //      status - the player to search for.
-     * //
-     * //RETURN:
-     * //     return the position if a patter found, otherwise -1.
-     * //------------------------------------------------------
-     **/
-    private int checkRowRight(int row, int col, Status status) {
-        int position = -1;
-
-        if (board[row][col] == status) {
-            if (col + 1 < size && board[row][col + 1] == status) {
-                if (col + 2 < size && board[row][col + 2] == status && col + 3 < size && board[row][col + 3] == Status.NEITHER)
-                    position = col + 3;
-                else {
-                    if (col + 3 < size && board[row][col + 3] == status && board[row][col + 2] == Status.NEITHER)
-                        position = col + 2;
-                }
-            } else if (col + 3 < size && board[row][col + 2] == status && board[row][col + 3] == status && board[row][col + 1] == Status.NEITHER)
-                position = col + 1;
-        }
-        return position;
-    }
-
-
-    /**
-     * //------------------------------------------------------
-     * // checkRowLeft
-     * //
-     * // PURPOSE: private helper method that is called from defensive/
-     * //          offensive methods. It check the row to right, 3 columns in total
-     * //          and if there is a pattern of the same player, then return true.
-     * //
-     * // PARAMETERS:
-     * //      row - the row to start searching from.
-     * //      col - the col to start searching from.
-     * //      status - the player to search for.
-     * //
-     * //RETURN:
-     * //      return the position if a patter found, otherwise -1.
+     * //          AI should move. If we did not find, return -1.
      * //------------------------------------------------------
      **/
-    private int checkRowLeft(int row, int col, Status status) {
-        int position = -1;
-
-        if (board[row][col] == status) {
-            if (col - 1 >= 0 && board[row][col - 1] == status) {
-                if (col - 2 >= 0 && board[row][col - 2] == status && col - 3 >= 0 && board[row][col - 3] == Status.NEITHER)
-                    position = col - 3;
-                else {
-                    if (col - 3 >= 0 && board[row][col - 3] == status && board[row][col - 2] == Status.NEITHER)
-                        position = col - 2;
-                }
-            } else if (col - 3 >= 0 && board[row][col - 2] == status && board[row][col - 3] == status && board[row][col - 1] == Status.NEITHER)
-                position = col - 1;
-        }
-        return position;
+    private int defensive() {
+        return firstColumn(threats.winningColumns(Status.ONE));
     }
 
 
     /**
      * //------------------------------------------------------
-     * // checkCol
-     * //
-     * // PURPOSE: private helper method that is called from defensive/
-     * //          offensive methods. It check the col to top, 3 columns in total
-     * //          and if there is a pattern of the same player, then return true.
+     * // offensive
      * //
-     * // PARAMETERS:
-     * //      row - the row to start searching from.
-     * //      col - the col to start searching from.
-     * //      status - the player to search for.
+     * // PURPOSE: private helper method to check if AI can be played
+     * //          offensive. That is, check if the AI has three pieces in any
+     * //          row, column or diagonal line of four (with or without a gap) whose
+     * //          last cell can be played now, and so can win.
      * //
-     * //RETURN:
-     * //       return the position if a patter found, otherwise -1.
+     * // RETURN:
+     * //          return an integer that the position we found that the
+     * //          AI should move in order to win. If we did not find, return -1.
      * //------------------------------------------------------
      **/
-    private int checkCol(int row, int col, Status status) {
-        int counter = 3;
-        int position = -1;
-        int tempRow = row;
-
-        while (tempRow > 0 && board[tempRow][col] == status && counter > 0) {
-            counter--;
-            tempRow--;
-        }
-        if(counter == 0 && row - 3 >= 0 && board[row-3][col] == Status.NEITHER)
-            position = col;
-        return position;
+    private int offensive() {
+        return firstColumn(threats.winningColumns(Status.TWO));
     }
 
 
     /**
      * //------------------------------------------------------
-     * // checkDiagonalRight
+     * // firstColumn
      * //
-     * // PURPOSE: private helper method that is called from defensive/
-     * //          offensive methods. It check 3 col to right, and 3 rows up,
-     * //          and if there is a pattern of the same player, then return true.
+     * // PURPOSE: private helper method that picks the lowest column of a mask.
      * //
      * // PARAMETERS:
-     * //      row - the row to start searching from.
-     * //      col - the col to start searching from.
-     * //      status - the player to search for.
-     * //
+     * //      columns - a mask with bit c set for column c.
      * //RETURN:
-     * //      return the position if a patter found, otherwise -1.
+     * //      return the lowest column in the mask, or -1 if it is empty.
      * //------------------------------------------------------
      **/
-    private int checkDiagonalRight(int row, int col, Status status) {
-        int counter = 3;
-        int pos = -1;
-        int tempRow = row;
-        int tempCol = col;
-
-        while (tempCol < size && tempRow >= 0 && board[tempRow][tempCol] == status && counter > 0) {
-            counter--;
-            tempRow--;
-            tempCol++;
-        }
-        if (counter == 0 && row - 3 >= 0 && col + 3 < size && board[row - 3][col + 3] == Status.NEITHER)
-            pos = col + 3;
-        return pos;
+    private static int firstColumn(int columns) {
+        return columns == 0 ? -1 : Integer.numberOfTrailingZeros(columns);
     }
 
 
     /**
      * //------------------------------------------------------
-     * // checkDiagonalLeft
+     * // gameOver
      * //
-     * // PURPOSE: private helper method that is called from defensive/
-     * //          offensive methods. It check 3 col to left, and 3 rows up,
-     * //          and if there is a pattern of the same player, then return true.
+     * // PURPOSE: called when the game is over and AI wins.
      * //
      * // PARAMETERS:
-     * //      row - the row to start searching from.
-     * //      col - the col to start searching from.
-     * //      status - the player to search for.
-     * //
-     * //RETURN:
-     * //       return the position if a patter found, otherwise -1.
+     * //      winner - the winner (AI)
      * //------------------------------------------------------
      **/
-    private int checkDiagonalLeft(int row, int col, Status status) {
-        int counter = 3;
-        int pos = -1;
-        int tempRow = row;
-        int tempCol = col;
-
-        while (tempCol >= 0 && tempRow >= 0 && board[tempRow][tempCol] == status && counter > 0) {
-            counter--;
-            tempRow--;
-            tempCol--;
-        }
-        if (counter == 0 && row - 3 >= 0 && col - 3 >= 0 && board[row - 3][col - 3] == Status.NEITHER)
-            pos = col - 3;
-        return pos;
+    public void gameOver(Status winner) {
+        this.winner = winner;
+        if (ponderer != null)
+            ponderer.stop();
     }
 
 
     /**
      * //------------------------------------------------------
-     * // gameOver
-     * //
-     * // PURPOSE: called when the game is over and AI wins.
+     * // shutdown
      * //
-     * // PARAMETERS:
-     * //      winner - the winner (AI)
+     * // PURPOSE: stops the threads of the search, if it has any, once no more
+     * //          moves are needed.
      * //------------------------------------------------------
      **/
-    public void gameOver(Status winner) {
-        this.winner = winner;
+    public void shutdown() {
+        if (search instanceof ParallelSearch)
+            ((ParallelSearch) search).shutdown();
     }
 }
@@ -0,0 +1,222 @@
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * // CLASS: Arena
+ * //
+ * // REMARKS: Headless self-play. Plays many games between two AI players through
+ * //          the Player and GameLogic interfaces, with no user interface, spread
+ * //          over worker threads. Game i of a run uses the seed (seed + i), so a
+ * //          run with the same settings plays the same games. The first player
+ * //          switches every game. At the end the win and draw rates and the
+ * //          number of games per second are printed.
+ * //
+ * //          Usage: java Arena [games=N] [threads=N] [size=N] [seed=N] [one=SPEC] [two=SPEC]
+ * //          A player SPEC is "pattern" for the pattern checks, "search:depth",
+ * //          "search:depth:nodes" for the game tree search, "search:depth:nodes:threads"
+ * //          for the same search spread over threads (see ParallelSearch), or
+ * //          "mcts:millis", "mcts:millis:threads" for Monte Carlo Tree Search.
+ * //
+ * //-----------------------------------------
+ **/
+public class Arena {
+    private int games = 1000;   //number of games to play
+    private int threads = Runtime.getRuntime().availableProcessors();   //number of worker threads
+    private int size = 7;   //size of the board
+    private long seed = 1;  //seed of the first game
+    private String one = "search:4";    //how player ONE plays
+    private String two = "pattern";     //how player TWO plays
+    private static final int MCTS_MEGABYTES = 16;   //memory of the tree of every MCTS player
+
+    private final AtomicInteger oneWins = new AtomicInteger();  //games won by player ONE
+    private final AtomicInteger twoWins = new AtomicInteger();  //games won by player TWO
+    private final AtomicInteger draws = new AtomicInteger();    //games drawn
+    private final AtomicLong moves = new AtomicLong();  //moves played in all games
+
+
+    public static void main(String[] args) throws InterruptedException {
+        Arena arena = new Arena();
+        for (String arg : args) {
+            arena.set(arg);
+        }
+        arena.run();
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // set
+     * //
+     * // PURPOSE: private helper method that reads one name=value setting.
+     * //
+     * // PARAMETERS:
+     * //      arg - the setting, as given on the command line.
+     * //------------------------------------------------------
+     **/
+    private void set(String arg) {
+        int split = arg.indexOf('=');
+        if (split < 0)
+            throw new IllegalArgumentException("Expected name=value, got " + arg);
+        String name = arg.substring(0, split);
+        String value = arg.substring(split + 1);
+        switch (name) {
+            case "games":
+                games = Integer.parseInt(value);
+                break;
+            case "threads":
+                threads = Integer.parseInt(value);
+                break;
+            case "size":
+                size = Integer.parseInt(value);
+                break;
+            case "seed":
+                seed = Long.parseLong(value);
+                break;
+            case "one":
+                one = value;
+                break;
+            case "two":
+                two = value;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown setting " + name);
+        }
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // run
+     * //
+     * // PURPOSE: plays all games on the worker threads and prints the results.
+     * //------------------------------------------------------
+     **/
+    public void run() throws InterruptedException {
+        System.out.println("Playing " + games + " games of size " + size + " on " + threads
+                + " threads: ONE=" + one + " TWO=" + two + " seed=" + seed);
+
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < games; i++) {
+            long gameSeed = seed + i;
+            boolean oneFirst = i % 2 == 0;
+            pool.execute(() -> playGame(gameSeed, oneFirst));
+        }
+        pool.shutdown();
+        pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        int played = oneWins.get() + twoWins.get() + draws.get();
+        System.out.printf("ONE wins %.1f%%, TWO wins %.1f%%, draws %.1f%% (%d games, %d failed)%n",
+                percent(oneWins.get(), played), percent(twoWins.get(), played),
+                percent(draws.get(), played), played, games - played);
+        System.out.printf("%.1f games/s, %.1f moves/game, %.2f s%n",
+                played / seconds, played == 0 ? 0.0 : (double) moves.get() / played, seconds);
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // playGame
+     * //
+     * // PURPOSE: private helper method that plays one game and counts its result.
+     * //
+     * // PARAMETERS:
+     * //      gameSeed - the seed of the random choices in this game.
+     * //      oneFirst - true if player ONE moves first.
+     * //------------------------------------------------------
+     **/
+    private void playGame(long gameSeed, boolean oneFirst) {
+        try {
+            Random random = new Random(gameSeed);
+            Player playerOne = createPlayer(one, random);
+            Player playerTwo = createPlayer(two, random);
+            Game game = new Game(playerOne, playerTwo, size, oneFirst);
+            game.setSeed(gameSeed);
+            game.start();
+            shutdown(playerOne);
+            shutdown(playerTwo);
+
+            Status winner = game.getWinner();
+            if (winner == Status.ONE)
+                oneWins.incrementAndGet();
+            else if (winner == Status.TWO)
+                twoWins.incrementAndGet();
+            else
+                draws.incrementAndGet();
+            moves.addAndGet(game.getTotalPlayed());
+        } catch (RuntimeException e) {
+            System.out.println("Game with seed " + gameSeed + " failed: " + e);
+        }
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // createPlayer
+     * //
+     * // PURPOSE: private helper method that makes an AI player from its SPEC.
+     * //
+     * // PARAMETERS:
+     * //      spec - "pattern", "search:depth", "search:depth:nodes",
+     * //             "search:depth:nodes:threads", "mcts:millis" or
+     * //             "mcts:millis:threads".
+     * //      random - the source of random choices of the game.
+     * //RETURN:
+     * //      return the player.
+     * //------------------------------------------------------
+     **/
+    private static Player createPlayer(String spec, Random random) {
+        String[] parts = spec.split(":");
+        if (parts[0].equals("pattern"))
+            return new AIplayer(null, random);
+        if (parts[0].equals("search")) {
+            int depth = parts.length > 1 ? Integer.parseInt(parts[1]) : 6;
+            long nodes = parts.length > 2 ? Long.parseLong(parts[2]) : 0;
+            int threads = parts.length > 3 ? Integer.parseInt(parts[3]) : 1;
+            TranspositionTable table = new TranspositionTable(1);
+            if (threads > 1)
+                return new AIplayer(new ParallelSearch(threads, depth, nodes, table), random);
+            return new AIplayer(new SearchEngine(depth, nodes, table), random);
+        }
+        if (parts[0].equals("mcts")) {
+            long millis = parts.length > 1 ? Long.parseLong(parts[1]) : 100;
+            int threads = parts.length > 2 ? Integer.parseInt(parts[2]) : 1;
+            return new MctsPlayer(millis, threads, MCTS_MEGABYTES, random);
+        }
+        throw new IllegalArgumentException("Unknown player " + spec);
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // shutdown
+     * //
+     * // PURPOSE: private helper method that stops the threads of a player made
+     * //          by createPlayer once its game is over.
+     * //------------------------------------------------------
+     **/
+    private static void shutdown(Player player) {
+        if (player instanceof MctsPlayer)
+            ((MctsPlayer) player).shutdown();
+        else if (player instanceof AIplayer)
+            ((AIplayer) player).shutdown();
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // percent
+     * //
+     * // RETURN:
+     * //      return part as a percentage of whole, 0 if whole is 0.
+     * //------------------------------------------------------
+     **/
+    private static double percent(int part, int whole) {
+        return whole == 0 ? 0 : 100.0 * part / whole;
+    }
+}
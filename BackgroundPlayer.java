@@ -0,0 +1,182 @@
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * // CLASS: BackgroundPlayer
+ * //
+ * // REMARKS: Wraps a player whose moves take real computing, like the AI, so that
+ * //          it thinks on a thread of its own while the caller goes on. Unlike
+ * //          PooledPlayer, lastMove returns at once; the move is handed back to
+ * //          the game later through an executor, which for a Swing game is the
+ * //          event dispatch thread, so the window keeps answering while the AI
+ * //          thinks. Every call reaches the wrapped player on the same thread, in
+ * //          order. A search given the stop flag ends with its best move so far
+ * //          once the time limit is up, and cancel ends it for good.
+ * //
+ * //-----------------------------------------
+ **/
+public class BackgroundPlayer implements Player {
+    private final Player player;    //the wrapped player
+    private final Executor answers;     //where the moves are handed back to the game
+    private final AtomicBoolean stopFlag;   //set to end the current search
+    private final long thinkMillis;     //time allowed for one move, 0 for no limit
+    private final ExecutorService thinking;     //the thread of the wrapped player
+    private final ScheduledExecutorService timer;   //sets the stop flag when the time is up
+    private volatile boolean cancelled;     //true once the game was left
+
+
+    /**
+     * //------------------------------------------------------
+     * // BackgroundPlayer
+     * //
+     * // PARAMETERS:
+     * //      player - the player to wrap.
+     * //      answers - where its moves are handed back to the game, e.g.
+     * //                SwingUtilities::invokeLater.
+     * //      stopFlag - the stop flag of its search.
+     * //      thinkMillis - the time allowed for one move, 0 for no limit.
+     * //------------------------------------------------------
+     **/
+    public BackgroundPlayer(Player player, Executor answers, AtomicBoolean stopFlag, long thinkMillis) {
+        this.player = player;
+        this.answers = answers;
+        this.stopFlag = stopFlag;
+        this.thinkMillis = thinkMillis;
+        thinking = Executors.newSingleThreadExecutor(r -> daemon(r, "ai-thinking"));
+        timer = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "ai-timer"));
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // setInfo
+     * //
+     * // PURPOSE: gives the wrapped player a game that hands its moves back
+     * //          through the executor, unless the game was left meanwhile.
+     * //
+     * // PARAMETERS:
+     * //      size - the size of the board
+     * //      gl - the game
+     * //------------------------------------------------------
+     **/
+    public void setInfo(int size, GameLogic gl) {
+        GameLogic handBack = new GameLogic() {
+            public void setAnswer(int col) {
+                answers.execute(() -> {
+                    if (!cancelled)
+                        gl.setAnswer(col);
+                });
+            }
+
+            public void quit() {
+                answers.execute(gl::quit);
+            }
+
+            //the game does not change while its player thinks, so these are safe to read
+            public int legalMoves() {
+                return gl.legalMoves();
+            }
+
+            public boolean isFull(int col) {
+                return gl.isFull(col);
+            }
+        };
+        run(() -> player.setInfo(size, handBack));
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // lastMove
+     * //
+     * // PURPOSE: starts the wrapped player thinking about its answer and
+     * //          returns at once. The stop flag is set when the time is up.
+     * //
+     * // PARAMETERS:
+     * //      lastCol - column where the opponent played.
+     * //------------------------------------------------------
+     **/
+    public void lastMove(int lastCol) {
+        stopFlag.set(false);
+        ScheduledFuture<?> limit = thinkMillis <= 0 ? null
+                : timer.schedule(() -> stopFlag.set(true), thinkMillis, TimeUnit.MILLISECONDS);
+        run(() -> {
+            try {
+                player.lastMove(lastCol);
+            } finally {
+                if (limit != null)
+                    limit.cancel(false);
+            }
+        });
+    }
+
+
+    public void gameOver(Status winner) {
+        run(() -> player.gameOver(winner));
+    }
+
+
+    public void restoreMove(int col, boolean own) {
+        run(() -> player.restoreMove(col, own));
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // cancel
+     * //
+     * // PURPOSE: stops the search under way, drops any move it still hands back
+     * //          and ends the threads. Called when the game is left.
+     * //------------------------------------------------------
+     **/
+    public void cancel() {
+        cancelled = true;
+        stopFlag.set(true);
+        thinking.shutdownNow();
+        timer.shutdownNow();
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // run
+     * //
+     * // PURPOSE: private helper method that runs a call of the wrapped player on
+     * //          its thread, unless the game was left.
+     * //
+     * // PARAMETERS:
+     * //      call - the call.
+     * //------------------------------------------------------
+     **/
+    private void run(Runnable call) {
+        if (cancelled)
+            return;
+        thinking.execute(() -> {
+            try {
+                call.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // daemon
+     * //
+     * // PURPOSE: private helper method that makes a thread that does not keep
+     * //          the program running.
+     * //------------------------------------------------------
+     **/
+    private static Thread daemon(Runnable r, String name) {
+        Thread thread = new Thread(r, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,482 @@
+/**
+ * // CLASS: BitBoard
+ * //
+ * // REMARKS: A packed board representation shared by the game and the AI. Every
+ * //          player owns one bit-set, stored across several long words so that
+ * //          every board size between 6 and 12 fits. Bits are laid out column by
+ * //          column, bottom to top, with one extra empty (sentinel) bit on top of
+ * //          every column so that shifted patterns never wrap into the next column.
+ * //          Four-in-a-row is found with shifts and ANDs instead of walking cells.
+ * //
+ * //          Rows passed to and returned from this class are counted from the top
+ * //          (row 0 is the top row), the same way the rest of the program does.
+ * //
+ * //-----------------------------------------
+ **/
+public class BitBoard {
+    private final int size;     //size of the board
+    private final int height;   //bits per column, size + 1 for the sentinel bit
+    private final int words;    //number of long words per bit-set
+    private final long[] one;   //pieces of player ONE
+    private final long[] two;   //pieces of player TWO
+    private final ColumnHeights heights;    //number of pieces in every column
+    private final long[] scratchA;  //temporary words used while shifting
+    private final long[] scratchB;  //temporary words used while shifting
+    private int moves;  //number of pieces on the board
+    private long hash;  //Zobrist hash of the pieces on the board
+    private long mirrorHash;    //Zobrist hash of the board flipped left to right
+
+
+    /**
+     * //------------------------------------------------------
+     * // BitBoard
+     * //
+     * // PURPOSE: constructor that creates an empty board of the given size.
+     * //
+     * // PARAMETERS:
+     * //      size - the size of the board
+     * //------------------------------------------------------
+     **/
+    public BitBoard(int size) {
+        this.size = size;
+        height = size + 1;
+        words = (size * height + 63) / 64;
+        one = new long[words];
+        two = new long[words];
+        heights = new ColumnHeights(size);
+        scratchA = new long[words];
+        scratchB = new long[words];
+        hash = Zobrist.empty(size);
+        mirrorHash = hash;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // BitBoard
+     * //
+     * // PURPOSE: copy constructor, so that a search thread can work on its own
+     * //          board.
+     * //
+     * // PARAMETERS:
+     * //      other - the board to copy.
+     * //------------------------------------------------------
+     **/
+    public BitBoard(BitBoard other) {
+        size = other.size;
+        height = other.height;
+        words = other.words;
+        one = other.one.clone();
+        two = other.two.clone();
+        heights = new ColumnHeights(other.heights);
+        scratchA = new long[words];
+        scratchB = new long[words];
+        moves = other.moves;
+        hash = other.hash;
+        mirrorHash = other.mirrorHash;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // size
+     * //
+     * // RETURN:
+     * //      return the size of the board.
+     * //------------------------------------------------------
+     **/
+    public int size() {
+        return size;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // getMoves
+     * //
+     * // RETURN:
+     * //      return the number of pieces played so far.
+     * //------------------------------------------------------
+     **/
+    public int getMoves() {
+        return moves;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // getHash
+     * //
+     * // RETURN:
+     * //      return the Zobrist hash of the pieces on the board. It is kept up to
+     * //      date by play and undo.
+     * //------------------------------------------------------
+     **/
+    public long getHash() {
+        return hash;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // getCanonicalHash
+     * //
+     * // PURPOSE: a position and its mirror image, the same pieces flipped left to
+     * //          right, are worth the same, so caches keyed by this hash keep one
+     * //          entry for both. A move found for the key must be passed through
+     * //          canonicalColumn when it is stored and read back.
+     * //
+     * // RETURN:
+     * //      return the smaller of the hashes of the board and of its mirror.
+     * //------------------------------------------------------
+     **/
+    public long getCanonicalHash() {
+        return Math.min(hash, mirrorHash);
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // canonicalColumn
+     * //
+     * // PURPOSE: turns a column of this board into the same column of the board
+     * //          getCanonicalHash stands for, or back, since flipping twice gives
+     * //          the column again.
+     * //
+     * // PARAMETERS:
+     * //      col - the column, or -1 for none.
+     * //RETURN:
+     * //      return the column, flipped if the canonical board is the mirror.
+     * //------------------------------------------------------
+     **/
+    public int canonicalColumn(int col) {
+        return col < 0 || mirrorHash >= hash ? col : size - 1 - col;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // isSymmetric
+     * //
+     * // RETURN:
+     * //      return true if the board is its own mirror image, so that a move and
+     * //      its mirrored move lead to positions worth the same.
+     * //------------------------------------------------------
+     **/
+    public boolean isSymmetric() {
+        if (hash != mirrorHash)
+            return false;
+        for (int col = 0; col < size / 2; col++) {
+            int other = size - 1 - col;
+            if (heights.height(col) != heights.height(other))
+                return false;
+            for (int row = 0; row < heights.height(col); row++) {
+                if (cell(col * height + row) != cell(other * height + row))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // symmetricMoves
+     * //
+     * // PURPOSE: gives the moves worth searching. On a symmetric board the right
+     * //          half of the columns play the same as the left half, so they are
+     * //          left out.
+     * //
+     * // RETURN:
+     * //      return legalMoves, without the right half when the board is symmetric.
+     * //------------------------------------------------------
+     **/
+    public int symmetricMoves() {
+        int legal = legalMoves();
+        return isSymmetric() ? legal & ((1 << (size + 1) / 2) - 1) : legal;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // drop
+     * //
+     * // PURPOSE: finds the position of a marker when it is dropped in a column,
+     * //          without placing it.
+     * //
+     * // PARAMETERS:
+     * //      col - the column where the piece is dropped.
+     * //RETURN:
+     * //      return the row where the piece lands, or -1 if the column is full.
+     * //------------------------------------------------------
+     **/
+    public int drop(int col) {
+        return heights.drop(col);
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // play
+     * //
+     * // PURPOSE: drops a piece of the given player in a column.
+     * //
+     * // PARAMETERS:
+     * //      col - the column where the piece is dropped.
+     * //      status - what player to add - ONE or TWO.
+     * //RETURN:
+     * //      return the row where the piece landed.
+     * //------------------------------------------------------
+     **/
+    public int play(int col, Status status) {
+        int bit = col * height + heights.height(col);
+        long[] bits = status == Status.ONE ? one : two;
+        bits[bit >>> 6] |= 1L << (bit & 63);
+        hash ^= Zobrist.key(status, bit);
+        mirrorHash ^= Zobrist.key(status, bit + (size - 1 - 2 * col) * height);
+        moves++;
+        return heights.push(col);
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // undo
+     * //
+     * // PURPOSE: takes the top piece out of a column, undoing the last play in it.
+     * //          Used by the search to walk back up the game tree.
+     * //
+     * // PARAMETERS:
+     * //      col - the column to take the piece from.
+     * //------------------------------------------------------
+     **/
+    public void undo(int col) {
+        heights.pop(col);
+        int bit = col * height + heights.height(col);
+        int mirrorBit = bit + (size - 1 - 2 * col) * height;
+        long mask = 1L << (bit & 63);
+        if ((one[bit >>> 6] & mask) != 0) {
+            one[bit >>> 6] &= ~mask;
+            hash ^= Zobrist.key(Status.ONE, bit);
+            mirrorHash ^= Zobrist.key(Status.ONE, mirrorBit);
+        } else {
+            two[bit >>> 6] &= ~mask;
+            hash ^= Zobrist.key(Status.TWO, bit);
+            mirrorHash ^= Zobrist.key(Status.TWO, mirrorBit);
+        }
+        moves--;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // get
+     * //
+     * // PARAMETERS:
+     * //      row - the row of the cell, counted from the top.
+     * //      col - the column of the cell.
+     * //RETURN:
+     * //      return the player occupying the cell, or NEITHER if it is empty.
+     * //------------------------------------------------------
+     **/
+    public Status get(int row, int col) {
+        return cell(col * height + (size - 1 - row));
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // pieces
+     * //
+     * // PURPOSE: gives the bit-set of one player, for code that reads many cells
+     * //          at once. The words are the board's own and must not be changed.
+     * //
+     * // PARAMETERS:
+     * //      status - the player, ONE or TWO.
+     * //RETURN:
+     * //      return the words of the player's bit-set.
+     * //------------------------------------------------------
+     **/
+    public long[] pieces(Status status) {
+        return status == Status.ONE ? one : two;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // isFull
+     * //
+     * // PARAMETERS:
+     * //      col - the column to check.
+     * //RETURN:
+     * //      return true if no more pieces fit in the column.
+     * //------------------------------------------------------
+     **/
+    public boolean isFull(int col) {
+        return heights.isFull(col);
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // legalMoves
+     * //
+     * // RETURN:
+     * //      return a mask with bit c set for every column c that still has room.
+     * //------------------------------------------------------
+     **/
+    public int legalMoves() {
+        return heights.openColumns();
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // isWin
+     * //
+     * // PURPOSE: checks if the player has four in a row anywhere on the board,
+     * //          vertically, horizontally or on either diagonal.
+     * //
+     * // PARAMETERS:
+     * //      status - the player to check.
+     * //RETURN:
+     * //      return true if the player has four in a row, otherwise false.
+     * //------------------------------------------------------
+     **/
+    public boolean isWin(Status status) {
+        long[] bits = status == Status.ONE ? one : two;
+        return hasFour(bits, 1) || hasFour(bits, height)
+                || hasFour(bits, height - 1) || hasFour(bits, height + 1);
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // isWinAt
+     * //
+     * // PURPOSE: checks if the top piece of a column is part of four in a row.
+     * //          Only the four lines through that piece are looked at, so this
+     * //          is the cheap check to call right after a piece is dropped.
+     * //
+     * // PARAMETERS:
+     * //      col - the column that was just played.
+     * //RETURN:
+     * //      return true if the piece completes four in a row, otherwise false.
+     * //------------------------------------------------------
+     **/
+    public boolean isWinAt(int col) {
+        int row = heights.height(col) - 1;
+        if (row < 0)
+            return false;
+        int bit = col * height + row;
+        long[] bits = (one[bit >>> 6] & (1L << (bit & 63))) != 0 ? one : two;
+
+        return count(bits, col, row, 0, -1) >= 3
+                || count(bits, col, row, 1, 0) + count(bits, col, row, -1, 0) >= 3
+                || count(bits, col, row, 1, 1) + count(bits, col, row, -1, -1) >= 3
+                || count(bits, col, row, 1, -1) + count(bits, col, row, -1, 1) >= 3;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // cell
+     * //
+     * // PURPOSE: private helper method that reads one cell by its bit.
+     * //
+     * // RETURN:
+     * //      return the player occupying the cell, or NEITHER if it is empty.
+     * //------------------------------------------------------
+     **/
+    private Status cell(int bit) {
+        long mask = 1L << (bit & 63);
+        if ((one[bit >>> 6] & mask) != 0)
+            return Status.ONE;
+        if ((two[bit >>> 6] & mask) != 0)
+            return Status.TWO;
+        return Status.NEITHER;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // count
+     * //
+     * // PURPOSE: private helper method that counts the pieces of one player next
+     * //          to a cell in one direction, stopping after 3.
+     * //
+     * // PARAMETERS:
+     * //      bits - the bit-set of the player.
+     * //      col - the column of the cell to start from.
+     * //      row - the row of the cell to start from, counted from the bottom.
+     * //      dCol - the column step.
+     * //      dRow - the row step.
+     * //RETURN:
+     * //      return the number of pieces found, between 0 and 3.
+     * //------------------------------------------------------
+     **/
+    private int count(long[] bits, int col, int row, int dCol, int dRow) {
+        int found = 0;
+        col += dCol;
+        row += dRow;
+        while (found < 3 && col >= 0 && col < size && row >= 0 && row < size) {
+            int bit = col * height + row;
+            if ((bits[bit >>> 6] & (1L << (bit & 63))) == 0)
+                break;
+            found++;
+            col += dCol;
+            row += dRow;
+        }
+        return found;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // hasFour
+     * //
+     * // PURPOSE: private helper method that checks for four bits in a row in one
+     * //          direction. Two shift-and-AND steps leave a bit set exactly where
+     * //          a run of four starts.
+     * //
+     * // PARAMETERS:
+     * //      bits - the bit-set of one player.
+     * //      shift - distance between two neighbouring cells in the direction.
+     * //RETURN:
+     * //      return true if a run of four is found, otherwise false.
+     * //------------------------------------------------------
+     **/
+    private boolean hasFour(long[] bits, int shift) {
+        shiftRight(bits, shift, scratchA);
+        for (int i = 0; i < words; i++) {
+            scratchA[i] &= bits[i];
+        }
+        shiftRight(scratchA, 2 * shift, scratchB);
+        for (int i = 0; i < words; i++) {
+            if ((scratchA[i] & scratchB[i]) != 0)
+                return true;
+        }
+        return false;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // shiftRight
+     * //
+     * // PURPOSE: private helper method that shifts a multi-word bit-set right,
+     * //          carrying bits over from the next word.
+     * //
+     * // PARAMETERS:
+     * //      src - the words to shift.
+     * //      shift - the number of bits to shift by, between 1 and 63.
+     * //      dst - where to store the result.
+     * //------------------------------------------------------
+     **/
+    private void shiftRight(long[] src, int shift, long[] dst) {
+        for (int i = 0; i < words - 1; i++) {
+            dst[i] = (src[i] >>> shift) | (src[i + 1] << (64 - shift));
+        }
+        dst[words - 1] = src[words - 1] >>> shift;
+    }
+}
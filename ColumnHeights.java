@@ -0,0 +1,151 @@
+/**
+ * // CLASS: ColumnHeights
+ * //
+ * // REMARKS: Keeps the number of pieces in every column of a board, so the row
+ * //          where the next piece lands and whether a column is full are known
+ * //          without walking down the column. Every board holder (the game, the AI
+ * //          and the user interfaces) uses one of these instead of its own drop loop.
+ * //
+ * //          Rows are counted from the top (row 0 is the top row), the same way
+ * //          the boards are drawn.
+ * //
+ * //-----------------------------------------
+ **/
+public class ColumnHeights {
+    private final int size;     //size of the board
+    private final int[] heights;    //number of pieces in every column
+    private int open;   //mask with bit c set while column c still has room
+
+
+    /**
+     * //------------------------------------------------------
+     * // ColumnHeights
+     * //
+     * // PURPOSE: constructor that starts with every column empty.
+     * //
+     * // PARAMETERS:
+     * //      size - the size of the board
+     * //------------------------------------------------------
+     **/
+    public ColumnHeights(int size) {
+        this.size = size;
+        heights = new int[size];
+        open = (1 << size) - 1;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // ColumnHeights
+     * //
+     * // PURPOSE: copy constructor.
+     * //
+     * // PARAMETERS:
+     * //      other - the heights to copy.
+     * //------------------------------------------------------
+     **/
+    public ColumnHeights(ColumnHeights other) {
+        size = other.size;
+        heights = other.heights.clone();
+        open = other.open;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // drop
+     * //
+     * // PURPOSE: finds the position of a marker when it is dropped in a column,
+     * //          without recording it.
+     * //
+     * // PARAMETERS:
+     * //      col - the column where the piece is dropped.
+     * //RETURN:
+     * //      return the row where the piece lands, or -1 if the column is full.
+     * //------------------------------------------------------
+     **/
+    public int drop(int col) {
+        return size - 1 - heights[col];
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // push
+     * //
+     * // PURPOSE: records a piece dropped in a column.
+     * //
+     * // PARAMETERS:
+     * //      col - the column where the piece is dropped.
+     * //RETURN:
+     * //      return the row where the piece landed.
+     * //------------------------------------------------------
+     **/
+    public int push(int col) {
+        int row = size - 1 - heights[col]++;
+        if (heights[col] == size)
+            open &= ~(1 << col);
+        return row;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // pop
+     * //
+     * // PURPOSE: removes the top piece of a column, undoing the last push.
+     * //
+     * // PARAMETERS:
+     * //      col - the column to take the piece from.
+     * //RETURN:
+     * //      return the row the piece was taken from.
+     * //------------------------------------------------------
+     **/
+    public int pop(int col) {
+        open |= 1 << col;
+        return size - heights[col]--;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // height
+     * //
+     * // PARAMETERS:
+     * //      col - the column to check.
+     * //RETURN:
+     * //      return the number of pieces in the column.
+     * //------------------------------------------------------
+     **/
+    public int height(int col) {
+        return heights[col];
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // isFull
+     * //
+     * // PARAMETERS:
+     * //      col - the column to check.
+     * //RETURN:
+     * //      return true if no more pieces fit in the column.
+     * //------------------------------------------------------
+     **/
+    public boolean isFull(int col) {
+        return heights[col] == size;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // openColumns
+     * //
+     * // RETURN:
+     * //      return a mask with bit c set for every column c that still has room.
+     * //------------------------------------------------------
+     **/
+    public int openColumns() {
+        return open;
+    }
+}
@@ -1,3 +1,7 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Random;
+
 /**
  * //-----------------------------------------
  * // NAME		: Yelizaveta Yashin
@@ -9,14 +13,84 @@
  * //          start of the game, the first player (human or computer) should be randomly
  * //          decide by the system. The game will play once and then end. The size
  * //          of the square board will be randomly chosen integer between 6-12.
+ * //          Given a file name, every move is recorded in that file, and a game
+ * //          that was not finished goes on where it stopped.
+ * //          Given seed=N, every random choice comes from that seed, so the same
+ * //          seed gives the same board and the same AI. Given replay=FILE, the
+ * //          game recorded in FILE is played again from its seed and search depth
+ * //          with the moves of the human read from the file, and the first move
+ * //          where the AI plays differently is reported. Given depth=N, the AI
+ * //          searches N moves ahead instead of using its pattern checks; a game
+ * //          resumed from FILE keeps the depth it was started with. Given
+ * //          threads=N, the search of the AI is spread over N threads; a replay
+ * //          always searches on one, since the moves of several threads depend
+ * //          on their timing.
  * //
+ * //          Usage: java Connect4 [FILE] [seed=N] [depth=N] [threads=N]
+ * //                 java Connect4 replay=FILE
  * //
  * //-----------------------------------------
  **/
 public class Connect4 {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         System.out.println("Start processing...");
-        Game gameLogic = new Game();
+        String file = null;
+        String replay = null;
+        long seed = new Random().nextLong();
+        int depth = 0;
+        int threads = 1;
+        for (String arg : args) {
+            if (arg.startsWith("seed="))
+                seed = Long.parseLong(arg.substring("seed=".length()));
+            else if (arg.startsWith("depth="))
+                depth = Integer.parseInt(arg.substring("depth=".length()));
+            else if (arg.startsWith("threads="))
+                threads = Integer.parseInt(arg.substring("threads=".length()));
+            else if (arg.startsWith("replay="))
+                replay = arg.substring("replay=".length());
+            else
+                file = arg;
+        }
+
+        if (replay != null) {
+            replay(replay);
+            return;
+        }
+        MoveJournal journal = file != null ? MoveJournal.open(Paths.get(file)) : null;
+        Game gameLogic = new Game(journal, seed, depth, threads);
+
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // replay
+     * //
+     * // PURPOSE: private helper method that plays a recorded game again and
+     * //          prints whether the AI made the same moves.
+     * //
+     * // PARAMETERS:
+     * //      file - the journal holding the recorded game.
+     * //------------------------------------------------------
+     **/
+    private static void replay(String file) throws IOException {
+        GameSnapshot recording = MoveJournal.read(Paths.get(file));
+        if (recording == null || !recording.isSeeded()) {
+            System.out.println(file + " holds no game with a seed to replay");
+            return;
+        }
+        Game game = new Game(new ReplayPlayer(recording), null, recording.getSeed(), recording.getDepth());
 
+        GameSnapshot played = game.snapshot();
+        int at = recording.firstDifference(played);
+        if (at == -1)
+            System.out.println("Replay matches all " + recording.getMoveCount() + " moves");
+        else if (at == played.getMoveCount())
+            System.out.println("Replay ended at move " + at + " of " + recording.getMoveCount());
+        else if (at == recording.getMoveCount())
+            System.out.println("Replay went on past the " + at + " recorded moves");
+        else
+            System.out.println("Replay differs at move " + at + ": column " + played.getMove(at)
+                    + " instead of " + recording.getMove(at));
     }
 }
@@ -0,0 +1,319 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * // CLASS: EngineMetrics
+ * //
+ * // REMARKS: Counters describing what the engine does, shared by every AI and
+ * //          game in the process and published as the JMX MBean
+ * //          "Connect4:type=EngineMetrics" (see it with jconsole or any JMX client).
+ * //          Searches add to the counters once per move, not once per node, and
+ * //          the counters are LongAdders, so threads searching in parallel do not
+ * //          wait on each other to count.
+ * //
+ * //          The depth comes only from the search whose move is played, while the
+ * //          helpers of a parallel search and the solver add their nodes too.
+ * //          Nodes per second divides all those nodes by the wall-clock time
+ * //          during which at least one search whose move is played was running,
+ * //          so searches of games played at the same time count their common
+ * //          time once and the rate is the speed of the whole engine. Pondering
+ * //          is not counted at all.
+ * //
+ * //-----------------------------------------
+ **/
+public class EngineMetrics implements EngineMetricsMBean {
+    public static final String NAME = "Connect4:type=EngineMetrics";    //JMX name of the counters
+
+    private static EngineMetrics instance;  //the counters of this process
+
+    private final LongAdder nodes = new LongAdder();    //nodes searched
+    private final LongAdder probes = new LongAdder();   //transposition table lookups
+    private final LongAdder hits = new LongAdder();     //lookups that found the position
+    private final LongAdder moves = new LongAdder();    //moves chosen by AI players
+    private final LongAdder thinkNanos = new LongAdder();   //time AI players spent choosing
+    private final LongAdder games = new LongAdder();    //games finished
+    private volatile int reachedDepth;  //deepest iteration of the search of the last move
+    private volatile long lastThinkNanos;   //time the last AI move took
+    private int running;    //searches of played moves running now, guarded by this
+    private long busySince;     //when running last went above 0, guarded by this
+    private long busyNanos;     //wall-clock time some search was running, guarded by this
+
+
+    /**
+     * //------------------------------------------------------
+     * // get
+     * //
+     * // PURPOSE: gives the counters of this process, registering them with the
+     * //          platform MBean server the first time.
+     * //
+     * // RETURN:
+     * //      return the shared counters.
+     * //------------------------------------------------------
+     **/
+    public static synchronized EngineMetrics get() {
+        if (instance == null) {
+            instance = new EngineMetrics();
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(instance, new ObjectName(NAME));
+            } catch (JMException e) {
+                System.out.println("Cannot register engine metrics: " + e.getMessage());
+            }
+        }
+        return instance;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // searchStarted
+     * //
+     * // PURPOSE: called by a search whose move is played, or the solver, when
+     * //          it starts. Every call is followed by one to searched or solved.
+     * //------------------------------------------------------
+     **/
+    public synchronized void searchStarted() {
+        if (running++ == 0)
+            busySince = System.nanoTime();
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // searched
+     * //
+     * // PURPOSE: called by the search whose move is played when it is done.
+     * //
+     * // PARAMETERS:
+     * //      nodeCount - the nodes it searched.
+     * //      depth - the deepest iteration it completed.
+     * //      tableProbes - its transposition table lookups.
+     * //      tableHits - the lookups that found the position.
+     * //------------------------------------------------------
+     **/
+    public void searched(long nodeCount, int depth, long tableProbes, long tableHits) {
+        nodes.add(nodeCount);
+        probes.add(tableProbes);
+        hits.add(tableHits);
+        reachedDepth = depth;
+        searchEnded();
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // solved
+     * //
+     * // PURPOSE: called by the solver when it is done with a move.
+     * //
+     * // PARAMETERS:
+     * //      nodeCount - the nodes it searched.
+     * //------------------------------------------------------
+     **/
+    public void solved(long nodeCount) {
+        nodes.add(nodeCount);
+        searchEnded();
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // helped
+     * //
+     * // PURPOSE: called by a helper of a parallel search when it is done with
+     * //          one move. It runs while the main search does, so its time is
+     * //          already counted.
+     * //
+     * // PARAMETERS:
+     * //      nodeCount - the nodes it searched.
+     * //      tableProbes - its transposition table lookups.
+     * //      tableHits - the lookups that found the position.
+     * //------------------------------------------------------
+     **/
+    public void helped(long nodeCount, long tableProbes, long tableHits) {
+        nodes.add(nodeCount);
+        probes.add(tableProbes);
+        hits.add(tableHits);
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // searchEnded
+     * //
+     * // PURPOSE: private helper method that adds the time since the first of
+     * //          the running searches started once the last of them ends.
+     * //------------------------------------------------------
+     **/
+    private synchronized void searchEnded() {
+        if (--running == 0)
+            busyNanos += System.nanoTime() - busySince;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // moveChosen
+     * //
+     * // PURPOSE: called by an AI player after choosing a move.
+     * //
+     * // PARAMETERS:
+     * //      nanos - the time it took to choose.
+     * //------------------------------------------------------
+     **/
+    public void moveChosen(long nanos) {
+        moves.increment();
+        thinkNanos.add(nanos);
+        lastThinkNanos = nanos;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // gameCompleted
+     * //
+     * // PURPOSE: called by a game when it is over.
+     * //------------------------------------------------------
+     **/
+    public void gameCompleted() {
+        games.increment();
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // getNodesSearched
+     * //
+     * // RETURN:
+     * //      return the nodes searched by the searches of played moves, their helpers
+     * //      and the solver.
+     * //------------------------------------------------------
+     **/
+    public long getNodesSearched() {
+        return nodes.sum();
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // getNodesPerSecond
+     * //
+     * // RETURN:
+     * //      return the nodes searched per second of wall-clock time during which at
+     * //      least one search was running, 0 before any search ended.
+     * //------------------------------------------------------
+     **/
+    public long getNodesPerSecond() {
+        long nanos;
+        synchronized (this) {
+            nanos = busyNanos;
+        }
+        return nanos == 0 ? 0 : (long) (nodes.sum() * 1e9 / nanos);
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // getReachedDepth
+     * //
+     * // RETURN:
+     * //      return the deepest iteration completed by the search of the last move.
+     * //------------------------------------------------------
+     **/
+    public int getReachedDepth() {
+        return reachedDepth;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // getTableHitRate
+     * //
+     * // RETURN:
+     * //      return the share of transposition table lookups that found the position,
+     * //      between 0 and 1.
+     * //------------------------------------------------------
+     **/
+    public double getTableHitRate() {
+        long p = probes.sum();
+        return p == 0 ? 0 : (double) hits.sum() / p;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // getMovesThought
+     * //
+     * // RETURN:
+     * //      return the number of moves chosen by AI players.
+     * //------------------------------------------------------
+     **/
+    public long getMovesThought() {
+        return moves.sum();
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // getAverageThinkMillis
+     * //
+     * // RETURN:
+     * //      return the average time an AI player took to choose a move, in milliseconds.
+     * //------------------------------------------------------
+     **/
+    public double getAverageThinkMillis() {
+        long m = moves.sum();
+        return m == 0 ? 0 : thinkNanos.sum() / 1e6 / m;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // getLastThinkMillis
+     * //
+     * // RETURN:
+     * //      return the time the last AI move took, in milliseconds.
+     * //------------------------------------------------------
+     **/
+    public double getLastThinkMillis() {
+        return lastThinkNanos / 1e6;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // getGamesCompleted
+     * //
+     * // RETURN:
+     * //      return the number of games finished.
+     * //------------------------------------------------------
+     **/
+    public long getGamesCompleted() {
+        return games.sum();
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // reset
+     * //
+     * // PURPOSE: sets every counter back to 0. Searches running now count their
+     * //          time from here.
+     * //------------------------------------------------------
+     **/
+    public void reset() {
+        synchronized (this) {
+            busyNanos = 0;
+            busySince = System.nanoTime();  //searches running now count from here
+        }
+        nodes.reset();
+        probes.reset();
+        hits.reset();
+        moves.reset();
+        thinkNanos.reset();
+        games.reset();
+        reachedDepth = 0;
+        lastThinkNanos = 0;
+    }
+}
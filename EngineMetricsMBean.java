@@ -0,0 +1,11 @@
+public interface EngineMetricsMBean {
+    long getNodesSearched();
+    long getNodesPerSecond();
+    int getReachedDepth();
+    double getTableHitRate();
+    long getMovesThought();
+    double getAverageThinkMillis();
+    double getLastThinkMillis();
+    long getGamesCompleted();
+    void reset();
+}
@@ -0,0 +1,148 @@
+/**
+ * // CLASS: Evaluator
+ * //
+ * // REMARKS: Guesses how good a position is when the search stops. Every window
+ * //          of four cells (see WinWindows) that only one player has pieces in
+ * //          counts for that player, more so the fuller it is.
+ * //
+ * //          evaluate scores all the windows of one direction at once: every bit
+ * //          of a BitBoard word is a lane for the window starting at that cell.
+ * //          The player's words shifted by 0 to 3 steps bring the four cells of
+ * //          every window onto its first cell, where a few ANDs and XORs add them
+ * //          into a two-bit count, and a bit count per weight gives the score.
+ * //          evaluateScalar walks the windows one by one; it is kept as the plain
+ * //          version to check the other against (see EvaluatorBenchmark).
+ * //
+ * //-----------------------------------------
+ **/
+public class Evaluator {
+    private static final int[] WEIGHTS = {0, 1, 4, 16, 0};  //value of a window by its piece count
+
+
+    /**
+     * //------------------------------------------------------
+     * // evaluate
+     * //
+     * // PARAMETERS:
+     * //      board - the position to score.
+     * //      side - the player to move.
+     * //RETURN:
+     * //      return the score of the position for side.
+     * //------------------------------------------------------
+     **/
+    public int evaluate(BitBoard board, Status side) {
+        WinWindows windows = WinWindows.forSize(board.size());
+        long[] mine = board.pieces(side);
+        long[] theirs = board.pieces(SearchEngine.opponent(side));
+        int score = 0;
+
+        for (int d = 0; d < windows.steps.length; d++) {
+            int step = windows.steps[d];
+            long[] starts = windows.starts[d];
+            for (int i = 0; i < starts.length; i++) {
+                long m0 = mine[i];
+                long m1 = shifted(mine, i, step);
+                long m2 = shifted(mine, i, 2 * step);
+                long m3 = shifted(mine, i, 3 * step);
+                long t0 = theirs[i];
+                long t1 = shifted(theirs, i, step);
+                long t2 = shifted(theirs, i, 2 * step);
+                long t3 = shifted(theirs, i, 3 * step);
+                score += windowScore(m0, m1, m2, m3, starts[i] & ~(t0 | t1 | t2 | t3));
+                score -= windowScore(t0, t1, t2, t3, starts[i] & ~(m0 | m1 | m2 | m3));
+            }
+        }
+        return score;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // evaluateScalar
+     * //
+     * // PURPOSE: the same score as evaluate, found by looking at the cells of
+     * //          every window one at a time.
+     * //
+     * // PARAMETERS:
+     * //      board - the position to score.
+     * //      side - the player to move.
+     * //RETURN:
+     * //      return the score of the position for side.
+     * //------------------------------------------------------
+     **/
+    public int evaluateScalar(BitBoard board, Status side) {
+        WinWindows windows = WinWindows.forSize(board.size());
+        long[] mine = board.pieces(side);
+        long[] theirs = board.pieces(SearchEngine.opponent(side));
+        int[] cells = windows.cells;
+        int score = 0;
+
+        for (int i = 0; i < cells.length; i += 4) {
+            int m = 0;
+            int t = 0;
+            for (int k = i; k < i + 4; k++) {
+                int bit = cells[k];
+                long mask = 1L << (bit & 63);
+                if ((mine[bit >>> 6] & mask) != 0)
+                    m++;
+                else if ((theirs[bit >>> 6] & mask) != 0)
+                    t++;
+            }
+            if (t == 0)
+                score += WEIGHTS[m];
+            else if (m == 0)
+                score -= WEIGHTS[t];
+        }
+        return score;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // shifted
+     * //
+     * // PURPOSE: private helper method that gives one word of a bit-set shifted
+     * //          right, with the bits carried over from the next word.
+     * //
+     * // PARAMETERS:
+     * //      bits - the words of the bit-set.
+     * //      i - the word wanted.
+     * //      shift - the number of bits to shift by, between 1 and 63.
+     * //RETURN:
+     * //      return word i of the shifted bit-set.
+     * //------------------------------------------------------
+     **/
+    private static long shifted(long[] bits, int i, int shift) {
+        long word = bits[i] >>> shift;
+        return i + 1 < bits.length ? word | bits[i + 1] << (64 - shift) : word;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // windowScore
+     * //
+     * // PURPOSE: private helper method that adds up the windows of one player in
+     * //          a word, with the four cells of every window lined up in a, b, c
+     * //          and d.
+     * //
+     * // PARAMETERS:
+     * //      a, b, c, d - the cells of the windows, one bit per window.
+     * //      open - the windows to count: real windows the opponent has no piece in.
+     * //RETURN:
+     * //      return the sum of the weights of the open windows.
+     * //------------------------------------------------------
+     **/
+    private static int windowScore(long a, long b, long c, long d, long open) {
+        //two half adders and a full adder; four pieces carry out of both bits and count 0
+        long low1 = a ^ b;
+        long high1 = a & b;
+        long low2 = c ^ d;
+        long high2 = c & d;
+        long low = low1 ^ low2;
+        long high = high1 ^ high2 ^ (low1 & low2);
+        return WEIGHTS[1] * Long.bitCount(open & low & ~high)
+                + WEIGHTS[2] * Long.bitCount(open & ~low & high)
+                + WEIGHTS[3] * Long.bitCount(open & low & high);
+    }
+}
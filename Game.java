@@ -1,5 +1,7 @@
-import java.util.Random;
 import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.swing.SwingUtilities;
 
 // CLASS: GAME
 //
@@ -12,12 +14,31 @@ import java.util.Arrays;
 public class Game implements GameLogic {
     private int col;    //the current column
     private Status player;  //the current player
-    private HumanPlayer humanPlayer;    //human player
-    private AIplayer aiPlayer;  //AI player
-    private Status board[][];   //identical board to keep truck of the winner
+    private Player playerOne;    //player ONE, the human in the default game
+    private Player playerTwo;  //player TWO, the AI in the default game
+    private BitBoard board;   //identical board to keep truck of the winner
     private int boardSize;  //board size
-    private int counter;    //counter to help search for a winner
     private int totalPlayed; //the number of total columns that are taken.
+    private boolean oneFirst;   //true if player ONE makes the first move
+    private boolean verbose;    //true to print the progress of the game
+    private Status winner;  //the winner once the game is over, otherwise null
+    private boolean running;    //true while turnLoop is playing moves
+    private int pending = NO_MOVE;  //move handed in but not played yet
+    private static final int NO_MOVE = -1;  //no move is pending
+    private byte[] moves;   //the columns played, in order
+    private MoveJournal journal;    //where every move is recorded, or null
+    private GameSnapshot restored;  //the game to resume on start, or null
+    private int recorded;   //moves already in the journal when the game started
+    private boolean seeded;     //true if the random choices of the game come from seed
+    private long seed;  //seed of the random choices of the game
+    private int depth;  //search depth of the AI, 0 for the pattern checks
+    private BackgroundPlayer thinking;  //the AI thinking off the event thread, or null
+    private Ponderer ponderer;  //the AI searching during the turn of the human, or null
+    private ParallelSearch parallel;    //the search of the AI when it uses several threads, or null
+    private static final long THINK_MILLIS = 5000;  //time the AI of the human game may take for a move
+    private static final int TABLE_MEGABYTES = 16;  //size of the table of the AI of the human game
+    private static final long SOLVER_NODES = 5000000;   //nodes the solver may take for one move, about a second
+    private final EngineMetrics metrics = EngineMetrics.get();  //counters published over JMX
 
 
     /**
@@ -34,281 +55,570 @@ public class Game implements GameLogic {
      * //------------------------------------------------------
      **/
     public Game() {
-        //generate a random number between 6-12 for the board size
-        Random random = new Random();
-        boardSize = random.nextInt(6 + 1) + 6;
-
-        /*This will create a copy board to keep truck of who wins*/
-        createBoard();
-
-        //create a AI player and Human player
-        humanPlayer = new HumanPlayer();
-        aiPlayer = new AIplayer();
+        this(null, new Random().nextLong());
+    }
 
 
-        //set info for both AI player and Human player before starting the game
-        humanPlayer.setInfo(boardSize, this);
-        aiPlayer.setInfo(boardSize, this);
+    /**
+     * //------------------------------------------------------
+     * // Game
+     * //
+     * // PURPOSE: contructor for the human against the AI, like the one above,
+     * //         where every random choice (the size, the first player and the
+     * //         moves the AI picks at random) comes from one seed, and every
+     * //         move is recorded in a journal. If the journal holds a game that
+     * //         was not finished, that game goes on where it stopped instead of
+     * //         starting a new one.
+     * //
+     * // PARAMETERS:
+     * //      journal - where the moves are recorded, or null for none.
+     * //      seed - the seed of the random choices.
+     * //------------------------------------------------------
+     **/
+    public Game(MoveJournal journal, long seed) {
+        this(journal, seed, 0);
+    }
 
 
-        //if 0 then human goes first, otherwise AI goes first
-        if (random.nextInt(2) == 0) {
-            player = Status.ONE;
-            System.out.println("The player is: Human");
-            humanPlayer.lastMove(-1);
-        } else {
-            player = Status.TWO;
-            System.out.println("The player is: AI");
-            aiPlayer.lastMove(-1);
-        }
+    /**
+     * //------------------------------------------------------
+     * // Game
+     * //
+     * // PURPOSE: contructor like the one above where the AI may also search. The
+     * //         AI thinks on a thread of its own, so the window keeps answering,
+     * //         and a search is cut short after THINK_MILLIS.
+     * //
+     * // PARAMETERS:
+     * //      journal - where the moves are recorded, or null for none.
+     * //      seed - the seed of the random choices.
+     * //      depth - how many moves ahead the AI searches, 0 for the pattern checks.
+     * //------------------------------------------------------
+     **/
+    public Game(MoveJournal journal, long seed, int depth) {
+        this(journal, seed, depth, 1);
     }
 
 
     /**
      * //------------------------------------------------------
-     * // setAnswer
+     * // Game
      * //
-     * // PURPOSE: responsible to alternate between players.
-     * //          Before moving to next player first check if anyone is winning.
+     * // PURPOSE: contructor like the one above where the search of the AI is
+     * //         spread over several threads (see ParallelSearch). The threads
+     * //         are stopped when the game is over or the human quits.
      * //
+     * // PARAMETERS:
+     * //      journal - where the moves are recorded, or null for none.
+     * //      seed - the seed of the random choices.
+     * //      depth - how many moves ahead the AI searches, 0 for the pattern checks.
+     * //      threads - the number of threads searching a move of the AI.
      * //------------------------------------------------------
      **/
-    public void setAnswer(int col) {
-        this.col = col;
-        addBoard(col, player);
-        totalPlayed++;
+    public Game(MoveJournal journal, long seed, int depth, int threads) {
+        this(new HumanPlayer(), journal, seed, depth, threads, true);
+    }
 
-        if (!checkWin()) {
-            if (player == Status.ONE) {
-                player = Status.TWO;
-                aiPlayer.lastMove(col);
 
-            } else {
-                player = Status.ONE;
-                humanPlayer.lastMove(col);
-            }
-        }
+    /**
+     * //------------------------------------------------------
+     * // Game
+     * //
+     * // PURPOSE: contructor like the one above with any player in place of the
+     * //         human, so a recorded game can be played again with the moves of
+     * //         the human read back from the recording. The AI thinks on the
+     * //         calling thread, with no time limit.
+     * //
+     * // PARAMETERS:
+     * //      human - the player using Status.ONE.
+     * //      journal - where the moves are recorded, or null for none.
+     * //      seed - the seed of the random choices.
+     * //      depth - how many moves ahead the AI searches, 0 for the pattern checks.
+     * //------------------------------------------------------
+     **/
+    public Game(Player human, MoveJournal journal, long seed, int depth) {
+        this(human, journal, seed, depth, 1, false);
     }
 
 
     /**
      * //------------------------------------------------------
-     * // checkWin
-     * //
-     * // PURPOSE: responsible to check if someone is winning using the local board
-     * //          we created.
+     * // Game
      * //
-     * // RETURN:
-     * //       return true is someone wins, otherwise false.
+     * // PURPOSE: private constructor for the human against the AI.
      * //
+     * // PARAMETERS:
+     * //      human - the player using Status.ONE.
+     * //      journal - where the moves are recorded, or null for none.
+     * //      seed - the seed of the random choices.
+     * //      depth - how many moves ahead the AI searches, 0 for the pattern checks.
+     * //      threads - the number of threads searching a move of the AI.
+     * //      background - true to let the AI think off the Swing event thread.
      * //------------------------------------------------------
      **/
-    private boolean checkWin() {
-        boolean result = false;
+    private Game(Player human, MoveJournal journal, long seed, int depth, int threads, boolean background) {
+        this.journal = journal;
+        GameSnapshot saved = journal == null ? null : journal.recover();
+        if (saved != null && saved.winner() == null) {
+            restored = saved;
+            if (saved.isSeeded()) {
+                seed = saved.getSeed();
+                depth = saved.getDepth();
+            }
+        }
+        this.seed = seed;
+        this.depth = depth;
+        seeded = true;
+        Random random = new Random(seed);
 
-        if(totalPlayed == boardSize*boardSize) {
-            aiPlayer.gameOver(Status.NEITHER);
-            humanPlayer.gameOver(Status.NEITHER);
-            System.out.println("Neither win.");
-            result = true;
-            return result;
+        //generate a random number between 6-12 for the board size
+        boardSize = random.nextInt(6 + 1) + 6;
+
+        //if 0 then human goes first, otherwise AI goes first
+        oneFirst = random.nextInt(2) == 0;
+
+        if (restored != null) {
+            boardSize = restored.getSize();
+            oneFirst = restored.isOneFirst();
         }
 
-        for (int row = board.length-1; row >= 0; row--) {
-
-            for (int col = 0; col < board.length; col++) {
-
-                if (board[row][col] == Status.ONE) {  //this is human position
-
-                    //check human player
-                    if (checkRow(row, col, Status.ONE) || checkDiagonalRight(row, col, Status.ONE) ||
-                            checkCol(row, col, Status.ONE) || checkDiagonalLeft(row, col, Status.ONE)) {
-                        System.out.println("Human wins");
-                        result = true;
-                        humanPlayer.gameOver(Status.ONE);
-                        aiPlayer.gameOver(Status.ONE);
-                    }
-
-                    //check AI player
-                } else if (board[row][col] == Status.TWO) {
-                    if (checkRow(row, col, Status.TWO) || checkDiagonalRight(row, col, Status.TWO) ||
-                            checkCol(row, col, Status.TWO) || checkDiagonalLeft(row, col, Status.TWO)) {
-                        System.out.println("AI wins");
-                        result = true;
-                        aiPlayer.gameOver(Status.TWO);
-                        humanPlayer.gameOver(Status.TWO);
-                    }
-                }
+        //create a AI player and Human player
+        AtomicBoolean stop = new AtomicBoolean();
+        Search search = null;
+        TranspositionTable table = null;
+        if (depth > 0 && threads > 1) {
+            table = new TranspositionTable(TABLE_MEGABYTES);
+            parallel = new ParallelSearch(threads, depth, 0, table);
+            parallel.setStopFlag(stop);
+            search = parallel;
+        } else if (depth > 0) {
+            table = new TranspositionTable(TABLE_MEGABYTES);
+            SearchEngine engine = new SearchEngine(depth, 0, table);
+            engine.setStopFlag(stop);
+            search = engine;
+        }
+        //the book and the solved positions on disk change between runs, so a
+        //game that may be replayed from its seed does without them
+        AIplayer ai = new AIplayer(search, random);
+        ai.setUseBook(false);
+        if (search != null && Solver.supports(boardSize)) {
+            Solver solver = new Solver(boardSize, SOLVER_NODES, TABLE_MEGABYTES, null);
+            solver.setStopFlag(stop);
+            ai.setSolver(solver);
+        }
+        playerOne = human;
+        playerTwo = ai;
+        if (background) {
+            //the human takes time to answer, so the AI searches meanwhile
+            if (search != null) {
+                ponderer = new Ponderer(depth + 1, table);
+                ai.setPonderer(ponderer);
             }
+            thinking = new BackgroundPlayer(playerTwo, SwingUtilities::invokeLater, stop, THINK_MILLIS);
+            playerTwo = thinking;
         }
 
-        return result;
+        verbose = true;
+        start();
     }
 
 
     /**
      * //------------------------------------------------------
-     * // checkRow
+     * // Game
      * //
-     * // PURPOSE: private helper method that check the row to right, 4 columns in total
-     * //          and if there is a pattern of the same player, then return true.
+     * // PURPOSE: contructor for a game between any two players, on a board of a
+     * //         given size, that prints nothing. The game does not begin until
+     * //         start is called.
      * //
      * // PARAMETERS:
-     * //      row - the row to start searching from.
-     * //      col - the col to start searching from.
-     * //      status - the player to search for.
+     * //      playerOne - the player using Status.ONE.
+     * //      playerTwo - the player using Status.TWO.
+     * //      size - the size of the board.
+     * //      oneFirst - true if playerOne makes the first move.
+     * //------------------------------------------------------
+     **/
+    public Game(Player playerOne, Player playerTwo, int size, boolean oneFirst) {
+        this.playerOne = playerOne;
+        this.playerTwo = playerTwo;
+        this.boardSize = size;
+        this.oneFirst = oneFirst;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // Game
      * //
-     * //RETURN:
-     * //      return true if a patter found, otherwise false.
+     * // PURPOSE: contructor for a game that goes on from a snapshot. When start
+     * //         is called, both players are told the moves already played and
+     * //         the player to move gets the turn.
+     * //
+     * // PARAMETERS:
+     * //      playerOne - the player using Status.ONE.
+     * //      playerTwo - the player using Status.TWO.
+     * //      snapshot - the game so far.
      * //------------------------------------------------------
      **/
-    private boolean checkRow(int row, int col, Status status) {
-        counter = 4;
+    public Game(Player playerOne, Player playerTwo, GameSnapshot snapshot) {
+        this(playerOne, playerTwo, snapshot.getSize(), snapshot.isOneFirst());
+        restored = snapshot;
+    }
 
-        while (col < boardSize && board[row][col] == status && counter > 0) {
-            counter--;
-            col++;
-        }
 
-        return counter == 0;
+    /**
+     * //------------------------------------------------------
+     * // setSeed
+     * //
+     * // PURPOSE: notes the seed the random choices of the players came from,
+     * //         so snapshots of this game carry it.
+     * //
+     * // PARAMETERS:
+     * //      seed - the seed.
+     * //------------------------------------------------------
+     **/
+    public void setSeed(long seed) {
+        this.seed = seed;
+        seeded = true;
     }
 
 
     /**
      * //------------------------------------------------------
-     * // checkCol
+     * // setJournal
      * //
-     * // PURPOSE: private helper method that check the col to top, 4 columns in total
-     * //          and if there is a pattern of the same player, then return true.
+     * // PURPOSE: records every move of this game in a journal from now on.
+     * //         Must be called before start.
      * //
      * // PARAMETERS:
-     * //      row - the row to start searching from.
-     * //      col - the col to start searching from.
-     * //      status - the player to search for.
+     * //      journal - where the moves are recorded, or null for none.
+     * //------------------------------------------------------
+     **/
+    public void setJournal(MoveJournal journal) {
+        this.journal = journal;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // start
      * //
-     * //RETURN:
-     * //      return true if a patter found, otherwise false.
+     * // PURPOSE: creates the board, calls setInfo on both players and asks the
+     * //         first player to move by calling its lastMove method with -1.
+     * //         When both players answer right away (no user interface), the
+     * //         whole game is played before this returns.
      * //------------------------------------------------------
      **/
-    private boolean checkCol(int row, int col, Status status) {
-        counter = 4;
+    public void start() {
+        /*This will create a copy board to keep truck of who wins*/
+        createBoard();
+
+        //set info for both players before starting the game
+        playerOne.setInfo(boardSize, this);
+        playerTwo.setInfo(boardSize, this);
+        if (journal != null) {
+            //a journal resumed from already holds the moves of the snapshot
+            if (restored != null && restored.equals(journal.recover()))
+                recorded = restored.getMoveCount();
+            else
+                journal.begin(boardSize, oneFirst, seeded, seed, depth);
+        }
 
-        while (row >= 0 && board[row][col] == status && counter > 0) {
-            counter--;
-            row--;
+        if (oneFirst) {
+            player = Status.ONE;
+            if (verbose)
+                System.out.println("The player is: Human");
+        } else {
+            player = Status.TWO;
+            if (verbose)
+                System.out.println("The player is: AI");
+        }
+        if (restored != null) {
+            for (int i = 0; i < restored.getMoveCount() && winner == null; i++) {
+                restoreTurn(restored.getMove(i));
+            }
+            if (winner != null)
+                return;
         }
 
-        return counter == 0;
+        if (player == Status.ONE)
+            playerOne.lastMove(-1);
+        else
+            playerTwo.lastMove(-1);
     }
 
 
     /**
      * //------------------------------------------------------
-     * // checkDiagonalRight
-     * //
-     * // PURPOSE: private helper method that check 4 col to right, and 4 rows up,
-     * //          and if there is a pattern of the same player, then return true.
+     * // snapshot
      * //
-     * // PARAMETERS:
-     * //      row - the row to start searching from.
-     * //      col - the col to start searching from.
-     * //      status - the player to search for.
+     * // RETURN:
+     * //      return the game so far, which a new Game can go on from.
+     * //------------------------------------------------------
+     **/
+    public GameSnapshot snapshot() {
+        byte[] played = Arrays.copyOf(moves, totalPlayed);
+        if (seeded)
+            return new GameSnapshot(boardSize, oneFirst, played, seed, depth);
+        return new GameSnapshot(boardSize, oneFirst, played);
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // getWinner
      * //
-     * //RETURN:
-     * //      return true if a patter found, otherwise false.
+     * // RETURN:
+     * //      return ONE or TWO for the winner, NEITHER for a draw, or null while
+     * //      the game is not over.
      * //------------------------------------------------------
      **/
-    private boolean checkDiagonalRight(int row, int col, Status status) {
-        counter = 4;
+    public Status getWinner() {
+        return winner;
+    }
 
-        while (col < boardSize && row >= 0 && board[row][col] == status && counter > 0) {
-            counter--;
-            row--;
-            col++;
-        }
-        return counter == 0;
+
+    /**
+     * //------------------------------------------------------
+     * // getTotalPlayed
+     * //
+     * // RETURN:
+     * //      return the number of moves played so far.
+     * //------------------------------------------------------
+     **/
+    public int getTotalPlayed() {
+        return totalPlayed;
     }
 
 
     /**
      * //------------------------------------------------------
-     * // checkDiagonalLeft
+     * // setAnswer
+     * //
+     * // PURPOSE: called by a player to hand in its move. The move is only
+     * //          queued here and played by turnLoop. A player answering from
+     * //          inside lastMove, as the AI does, returns to the loop before the
+     * //          next turn, so a game never nests one call per move on the stack.
      * //
-     * // PURPOSE: private helper method that check 4 col to left, and 4 rows up,
-     * //          and if there is a pattern of the same player, then return true.
+     * //          A column that does not exist or is full is refused, since
+     * //          playing it would corrupt the board, and so is any move before
+     * //          start was called.
      * //
      * // PARAMETERS:
-     * //      row - the row to start searching from.
-     * //      col - the col to start searching from.
-     * //      status - the player to search for.
+     * //      col - the column the current player plays.
+     * //------------------------------------------------------
+     **/
+    public void setAnswer(int col) {
+        if (board == null)
+            throw new IllegalStateException("The game has not started");
+        if (winner != null)
+            return;
+        if (col < 0 || col >= boardSize || (board.legalMoves() & (1 << col)) == 0)
+            throw new IllegalArgumentException("Column " + col + " cannot be played");
+        pending = col;
+        if (!running)
+            turnLoop();
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // legalMoves
      * //
+     * // RETURN:
+     * //      return a mask with bit c set for every column c that can be played
+     * //      now, 0 before the game started or once it is over. It is kept up
+     * //      to date by every move.
+     * //------------------------------------------------------
+     **/
+    public int legalMoves() {
+        return board == null || winner != null ? 0 : board.legalMoves();
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // isFull
+     * //
+     * // PARAMETERS:
+     * //      col - the column to check.
      * //RETURN:
-     * //      return true if a patter found, otherwise false.
+     * //      return true if no more pieces fit in the column, which is also the
+     * //      case for a column that does not exist or before the game started.
      * //------------------------------------------------------
      **/
-    private boolean checkDiagonalLeft(int row, int col, Status status) {
-        counter = 4;
+    public boolean isFull(int col) {
+        return board == null || col < 0 || col >= boardSize || board.isFull(col);
+    }
 
-        while (col >= 0 && row >= 0 && board[row][col] == status && counter > 0) {
-            counter--;
-            row--;
-            col--;
-        }
-        return counter == 0;
+
+    /**
+     * //------------------------------------------------------
+     * // quit
+     * //
+     * // PURPOSE: called when the human leaves the game. An AI thinking in the
+     * //          background is stopped and its move is not played, and any
+     * //          pondering ends. The threads of the search are stopped.
+     * //------------------------------------------------------
+     **/
+    public void quit() {
+        if (thinking != null)
+            thinking.cancel();
+        if (ponderer != null)
+            ponderer.shutdown();
+        if (parallel != null)
+            parallel.shutdown();
     }
 
 
     /**
      * //------------------------------------------------------
-     * // createBoard
+     * // turnLoop
      * //
-     * // PURPOSE: create a local board and initialize to NEITHER.
+     * // PURPOSE: private helper method that plays queued moves one turn at a
+     * //          time until no move is waiting (a player that answers later,
+     * //          like the human, has the turn) or the game is over.
      * //------------------------------------------------------
      **/
-    private void createBoard() {
-        board = new Status[boardSize][boardSize];
-        for (Status[] s : board) {
-            Arrays.fill(s, Status.NEITHER);
+    private void turnLoop() {
+        running = true;
+        try {
+            while (pending != NO_MOVE && winner == null) {
+                int move = pending;
+                pending = NO_MOVE;
+                playTurn(move);
+            }
+        } finally {
+            running = false;
         }
     }
 
 
     /**
      * //------------------------------------------------------
-     * // addBoard
+     * // playTurn
      * //
-     * // PURPOSE: called to add a player to the current board.
+     * // PURPOSE: responsible to alternate between players.
+     * //          Before moving to next player first check if anyone is winning.
      * //
      * // PARAMETERS:
-     * //      col - the col where to add the player.
-     * //      status - what player to add - Human or AI?
+     * //      col - the column the current player plays.
      * //------------------------------------------------------
      **/
-    private void addBoard(int col, Status status) {
-        int posn = drop(col);
-        board[posn][col] = status;
+    private void playTurn(int col) {
+        this.col = col;
+        addBoard(col, player);
+        totalPlayed++;
+
+        if (!checkWin()) {
+            if (player == Status.ONE) {
+                player = Status.TWO;
+                playerTwo.lastMove(col);
+
+            } else {
+                player = Status.ONE;
+                playerOne.lastMove(col);
+            }
+        }
     }
 
 
     /**
      * //------------------------------------------------------
-     * // drop
+     * // restoreTurn
      * //
-     * // PURPOSE:a private helper method that finds the position of a marker
-     * //         when it is dropped in a column.
+     * // PURPOSE: private helper method that plays a move of a restored game,
+     * //          telling both players about it instead of asking for an answer.
      * //
      * // PARAMETERS:
-     * //      col - the column where the piece is dropped.
-     * //RETURN:
-     * //      return the row where the piece lands
+     * //      col - the column the current player played.
+     * //------------------------------------------------------
+     **/
+    private void restoreTurn(int col) {
+        this.col = col;
+        addBoard(col, player);
+        totalPlayed++;
+        playerOne.restoreMove(col, player == Status.ONE);
+        playerTwo.restoreMove(col, player == Status.TWO);
+
+        if (!checkWin())
+            player = player == Status.ONE ? Status.TWO : Status.ONE;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // checkWin
+     * //
+     * // PURPOSE: responsible to check if someone is winning using the local board
+     * //          we created. Only the player who just moved can have won, and only
+     * //          with a line through the piece just dropped in col, so only those
+     * //          four lines are checked. The count of pieces played tells when the
+     * //          board is full.
+     * //
+     * // RETURN:
+     * //       return true is someone wins, otherwise false.
+     * //
      * //------------------------------------------------------
      **/
-    private int drop(int col) {
-        int posn = 0;
-        while (posn < board.length && board[posn][col] == Status.NEITHER) {
-            posn++;
+    private boolean checkWin() {
+        boolean result = false;
+
+        if (board.isWinAt(col)) {
+            if (verbose && player == Status.ONE)
+                System.out.println("Human wins");
+            else if (verbose)
+                System.out.println("AI wins");
+            result = true;
+            winner = player;
+            metrics.gameCompleted();
+            playerOne.gameOver(player);
+            playerTwo.gameOver(player);
+        } else if (totalPlayed == boardSize * boardSize) {
+            if (verbose)
+                System.out.println("Neither win.");
+            result = true;
+            winner = Status.NEITHER;
+            metrics.gameCompleted();
+            playerTwo.gameOver(Status.NEITHER);
+            playerOne.gameOver(Status.NEITHER);
         }
-        return posn - 1;
+        if (result && parallel != null)
+            parallel.shutdown();    //no more moves to search
+
+        return result;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // createBoard
+     * //
+     * // PURPOSE: create a local empty board.
+     * //------------------------------------------------------
+     **/
+    private void createBoard() {
+        board = new BitBoard(boardSize);
+        moves = new byte[boardSize * boardSize];
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // addBoard
+     * //
+     * // PURPOSE: called to add a player to the current board. The move is
+     * //          also kept for snapshots and written to the journal, if any.
+     * //
+     * // PARAMETERS:
+     * //      col - the col where to add the player.
+     * //      status - what player to add - Human or AI?
+     * //------------------------------------------------------
+     **/
+    private void addBoard(int col, Status status) {
+        board.play(col, status);
+        moves[totalPlayed] = (byte) col;
+        if (journal != null && totalPlayed >= recorded)
+            journal.append(col);
     }
 
 
@@ -1,3 +1,6 @@
 public interface GameLogic {
     void setAnswer (int col);
+    void quit();
+    int legalMoves();
+    boolean isFull(int col);
 }
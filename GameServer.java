@@ -0,0 +1,290 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * // CLASS: GameServer
+ * //
+ * // REMARKS: Hosts games against the AI for clients connecting over TCP on
+ * //          localhost. Every connection is a session running on its own virtual
+ * //          thread, so thousands of clients thinking about their move cost no
+ * //          platform thread each. Virtual threads need Java 21; on older Java
+ * //          the sessions fall back to ordinary threads. The AI moves are computed
+ * //          on a fixed pool (see PooledPlayer), so slow searches wait their turn
+ * //          instead of taking the threads the sessions need for reading and
+ * //          writing. All AI players share one transposition table. With
+ * //          threads above 1, every AI move is also spread over that many threads
+ * //          of its own game (see ParallelSearch), which are stopped when the
+ * //          client starts a new game or leaves.
+ * //
+ * //          The protocol is one command per line. The client sends:
+ * //              NEW [size] [first]  starts a game, size 6-12 (random if left
+ * //                                  out), first is "me" or "ai" (random if left out)
+ * //              MOVE col            plays in column col, counted from 0
+ * //              QUIT                closes the connection
+ * //          and the server answers:
+ * //              HELLO               once the client is connected
+ * //              GAME size first     the game started, first is "me" or "ai"
+ * //              AI col              the AI played in column col
+ * //              YOUR_TURN           the server waits for MOVE
+ * //              OVER winner         the game is over, winner is ONE (the client),
+ * //                                  TWO (the AI) or NEITHER
+ * //              ERROR reason        the last command was refused
+ * //
+ * //          Usage: java GameServer [port=N] [aiThreads=N] [threads=N] [depth=N] [table=MB]
+ * //
+ * //-----------------------------------------
+ **/
+public class GameServer {
+    private int port = 4000;    //port to listen on
+    private int aiThreads = Runtime.getRuntime().availableProcessors();     //threads computing AI moves
+    private int threads = 1;    //threads searching one AI move
+    private int depth = 8;  //search depth of the AI
+    private int tableMegabytes = 64;    //size of the shared transposition table
+
+    private ExecutorService sessions;   //one thread per connected client
+    private ExecutorService aiPool;     //bounded pool for AI moves
+    private TranspositionTable table;   //shared by all AI players
+    private ServerSocket server;    //accepts the clients
+
+
+    public static void main(String[] args) throws IOException {
+        GameServer gameServer = new GameServer();
+        for (String arg : args) {
+            gameServer.set(arg);
+        }
+        gameServer.run();
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // set
+     * //
+     * // PURPOSE: private helper method that reads one name=value setting.
+     * //
+     * // PARAMETERS:
+     * //      arg - the setting, as given on the command line.
+     * //------------------------------------------------------
+     **/
+    private void set(String arg) {
+        int split = arg.indexOf('=');
+        if (split < 0)
+            throw new IllegalArgumentException("Expected name=value, got " + arg);
+        String name = arg.substring(0, split);
+        String value = arg.substring(split + 1);
+        switch (name) {
+            case "port":
+                port = Integer.parseInt(value);
+                break;
+            case "aiThreads":
+                aiThreads = Integer.parseInt(value);
+                break;
+            case "threads":
+                threads = Integer.parseInt(value);
+                break;
+            case "depth":
+                depth = Integer.parseInt(value);
+                break;
+            case "table":
+                tableMegabytes = Integer.parseInt(value);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown setting " + name);
+        }
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // run
+     * //
+     * // PURPOSE: listens on localhost and starts a session for every client,
+     * //          until the server socket is closed.
+     * //------------------------------------------------------
+     **/
+    public void run() throws IOException {
+        sessions = sessionExecutor();
+        aiPool = Executors.newFixedThreadPool(aiThreads, runnable -> {
+            Thread thread = new Thread(runnable, "ai");
+            thread.setDaemon(true);
+            return thread;
+        });
+        table = new TranspositionTable(tableMegabytes);
+        server = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+        System.out.println("Listening on " + server.getLocalSocketAddress() + " with "
+                + aiThreads + " AI threads, " + threads + " per move, depth " + depth);
+
+        try {
+            while (true) {
+                Socket client = server.accept();
+                sessions.execute(() -> session(client));
+            }
+        } finally {
+            sessions.shutdown();
+            aiPool.shutdown();
+        }
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // close
+     * //
+     * // PURPOSE: stops accepting clients, which makes run return.
+     * //------------------------------------------------------
+     **/
+    public void close() throws IOException {
+        server.close();
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // sessionExecutor
+     * //
+     * // PURPOSE: private helper method that makes the executor of the sessions:
+     * //          a virtual thread per task when Java has them, found by
+     * //          reflection so the server still builds on Java 17, otherwise a
+     * //          cached pool of platform threads.
+     * //
+     * //RETURN:
+     * //      return the executor.
+     * //------------------------------------------------------
+     **/
+    private static ExecutorService sessionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            System.out.println("No virtual threads on this Java, using a platform thread per session.");
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // session
+     * //
+     * // PURPOSE: private helper method that talks to one client until it quits
+     * //          or disconnects. Moves of the client are played on this thread;
+     * //          it blocks while the AI answers on the AI pool.
+     * //
+     * // PARAMETERS:
+     * //      client - the connection to the client.
+     * //------------------------------------------------------
+     **/
+    private void session(Socket client) {
+        AIplayer ai = null;
+        try (Socket socket = client;
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.US_ASCII)) {
+            out.println("HELLO");
+            RemotePlayer remote = null;
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] words = line.trim().split("\\s+");
+                switch (words[0].toUpperCase()) {
+                    case "NEW":
+                        if (ai != null)
+                            ai.shutdown();
+                        ai = new AIplayer(threads > 1 ? new ParallelSearch(threads, depth, 0, table)
+                                : new SearchEngine(depth, 0, table), new Random());
+                        remote = newGame(words, out, ai);
+                        break;
+                    case "MOVE":
+                        String refused = remote == null ? "no game" : move(remote, words);
+                        if (refused != null)
+                            out.println("ERROR " + refused);
+                        break;
+                    case "QUIT":
+                        return;
+                    default:
+                        out.println("ERROR unknown command " + words[0]);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Session ended: " + e);
+        } finally {
+            if (ai != null)
+                ai.shutdown();
+        }
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // newGame
+     * //
+     * // PURPOSE: private helper method that starts a game for a NEW command.
+     * //
+     * // PARAMETERS:
+     * //      words - the command and its arguments.
+     * //      out - lines to the client.
+     * //      ai - the AI the client plays against.
+     * //RETURN:
+     * //      return the player of the client, or null if the command was refused.
+     * //------------------------------------------------------
+     **/
+    private RemotePlayer newGame(String[] words, PrintWriter out, AIplayer ai) {
+        Random random = new Random();
+        int size = 6 + random.nextInt(7);
+        boolean clientFirst = random.nextBoolean();
+        try {
+            if (words.length > 1)
+                size = Integer.parseInt(words[1]);
+        } catch (NumberFormatException e) {
+            size = 0;
+        }
+        if (size < 6 || size > 12) {
+            out.println("ERROR size must be 6-12");
+            return null;
+        }
+        if (words.length > 2) {
+            if (!words[2].equalsIgnoreCase("me") && !words[2].equalsIgnoreCase("ai")) {
+                out.println("ERROR first must be me or ai");
+                return null;
+            }
+            clientFirst = words[2].equalsIgnoreCase("me");
+        }
+
+        RemotePlayer remote = new RemotePlayer(out);
+        Game game = new Game(remote, new PooledPlayer(ai, aiPool), size, clientFirst);
+        out.println("GAME " + size + (clientFirst ? " me" : " ai"));
+        game.start();
+        return remote;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // move
+     * //
+     * // PURPOSE: private helper method that plays the column of a MOVE command.
+     * //
+     * // PARAMETERS:
+     * //      remote - the player of the client.
+     * //      words - the command and its arguments.
+     * //RETURN:
+     * //      return null if the move was played, otherwise why it was refused.
+     * //------------------------------------------------------
+     **/
+    private static String move(RemotePlayer remote, String[] words) {
+        if (words.length < 2)
+            return "MOVE needs a column";
+        try {
+            return remote.play(Integer.parseInt(words[1]));
+        } catch (NumberFormatException e) {
+            return "bad column " + words[1];
+        }
+    }
+}
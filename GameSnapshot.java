@@ -0,0 +1,316 @@
+import java.util.Arrays;
+
+/**
+ * // CLASS: GameSnapshot
+ * //
+ * // REMARKS: The state of a game in as few bytes as possible. A game is fully
+ * //          known from its board size, who moved first and the columns played,
+ * //          so nothing else is kept, except the seed of its random choices and
+ * //          the search depth of its AI when they are known, which let the game
+ * //          be played again the same way. Every column fits in 4 bits (boards
+ * //          are at most 12 wide), so two moves share a byte:
+ * //              byte 0      - board size
+ * //              byte 1      - bit 0 set if player ONE moved first, bit 1 set
+ * //                            if a seed and a depth follow
+ * //              byte 2      - number of moves
+ * //              (9 bytes)   - the seed and the depth, if any
+ * //              then        - the moves, the first of every pair in the high 4 bits
+ * //          A full 12x12 game takes 75 bytes, 84 with its seed and depth.
+ * //
+ * //-----------------------------------------
+ **/
+public final class GameSnapshot {
+    private static final int HEADER_BYTES = 3;  //size, flags and count
+    private static final int ONE_FIRST = 1;     //flag: player ONE moved first
+    private static final int SEEDED = 2;    //flag: a seed follows the header
+
+    private final int size;     //size of the board
+    private final boolean oneFirst;     //true if player ONE moved first
+    private final byte[] moves;     //the columns played, in order
+    private final boolean seeded;   //true if the seed is known
+    private final long seed;    //seed of the random choices of the game
+    private final int depth;    //search depth of the AI, 0 for the pattern checks
+
+
+    /**
+     * //------------------------------------------------------
+     * // GameSnapshot
+     * //
+     * // PURPOSE: constructor that checks every move can be played in turn.
+     * //
+     * // PARAMETERS:
+     * //      size - the size of the board, 6-12.
+     * //      oneFirst - true if player ONE moved first.
+     * //      moves - the columns played, in order. The array is kept, not copied.
+     * //------------------------------------------------------
+     **/
+    public GameSnapshot(int size, boolean oneFirst, byte[] moves) {
+        this(size, oneFirst, moves, false, 0, 0);
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // GameSnapshot
+     * //
+     * // PURPOSE: constructor for a game whose random choices came from a seed.
+     * //
+     * // PARAMETERS:
+     * //      size - the size of the board, 6-12.
+     * //      oneFirst - true if player ONE moved first.
+     * //      moves - the columns played, in order. The array is kept, not copied.
+     * //      seed - the seed of the random choices of the game.
+     * //      depth - the search depth of the AI, 0-255, 0 for the pattern checks.
+     * //------------------------------------------------------
+     **/
+    public GameSnapshot(int size, boolean oneFirst, byte[] moves, long seed, int depth) {
+        this(size, oneFirst, moves, true, seed, depth);
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // GameSnapshot
+     * //
+     * // PURPOSE: private constructor that checks every move can be played in turn.
+     * //------------------------------------------------------
+     **/
+    private GameSnapshot(int size, boolean oneFirst, byte[] moves, boolean seeded, long seed, int depth) {
+        if (size < 6 || size > 12)
+            throw new IllegalArgumentException("Bad board size " + size);
+        if (depth < 0 || depth > 255)
+            throw new IllegalArgumentException("Bad search depth " + depth);
+        ColumnHeights heights = new ColumnHeights(size);
+        for (byte col : moves) {
+            if (col < 0 || col >= size || heights.isFull(col))
+                throw new IllegalArgumentException("Column " + col + " cannot be played");
+            heights.push(col);
+        }
+        this.size = size;
+        this.oneFirst = oneFirst;
+        this.moves = moves;
+        this.seeded = seeded;
+        this.seed = seed;
+        this.depth = depth;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // fromBytes
+     * //
+     * // PURPOSE: reads a snapshot written by toBytes.
+     * //
+     * // PARAMETERS:
+     * //      bytes - the encoded snapshot.
+     * //RETURN:
+     * //      return the snapshot.
+     * //------------------------------------------------------
+     **/
+    public static GameSnapshot fromBytes(byte[] bytes) {
+        if (bytes.length < HEADER_BYTES)
+            throw new IllegalArgumentException("Snapshot too short");
+        int flags = bytes[1];
+        int count = bytes[2] & 0xFF;
+        int start = HEADER_BYTES + ((flags & SEEDED) != 0 ? 9 : 0);
+        if (bytes.length < start + (count + 1) / 2)
+            throw new IllegalArgumentException("Snapshot too short for " + count + " moves");
+        long seed = 0;
+        int depth = 0;
+        if ((flags & SEEDED) != 0) {
+            for (int i = HEADER_BYTES; i < HEADER_BYTES + 8; i++) {
+                seed = seed << 8 | (bytes[i] & 0xFF);
+            }
+            depth = bytes[HEADER_BYTES + 8] & 0xFF;
+        }
+        byte[] moves = new byte[count];
+        for (int i = 0; i < count; i++) {
+            int packed = bytes[start + i / 2];
+            moves[i] = (byte) ((i % 2 == 0 ? packed >> 4 : packed) & 0xF);
+        }
+        return new GameSnapshot(bytes[0], (flags & ONE_FIRST) != 0, moves, (flags & SEEDED) != 0, seed, depth);
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // toBytes
+     * //
+     * // RETURN:
+     * //      return the snapshot encoded as described above.
+     * //------------------------------------------------------
+     **/
+    public byte[] toBytes() {
+        int start = HEADER_BYTES + (seeded ? 9 : 0);
+        byte[] bytes = new byte[start + (moves.length + 1) / 2];
+        bytes[0] = (byte) size;
+        bytes[1] = (byte) ((oneFirst ? ONE_FIRST : 0) | (seeded ? SEEDED : 0));
+        bytes[2] = (byte) moves.length;
+        if (seeded) {
+            for (int i = 0; i < 8; i++) {
+                bytes[HEADER_BYTES + i] = (byte) (seed >>> 8 * (7 - i));
+            }
+            bytes[HEADER_BYTES + 8] = (byte) depth;
+        }
+        for (int i = 0; i < moves.length; i++) {
+            bytes[start + i / 2] |= (byte) (i % 2 == 0 ? moves[i] << 4 : moves[i]);
+        }
+        return bytes;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // winner
+     * //
+     * // PURPOSE: plays the moves on a board to see how the game stands.
+     * //
+     * //RETURN:
+     * //      return ONE or TWO for the winner, NEITHER for a draw, or null if the
+     * //      game is not over.
+     * //------------------------------------------------------
+     **/
+    public Status winner() {
+        BitBoard board = new BitBoard(size);
+        Status player = oneFirst ? Status.ONE : Status.TWO;
+        for (byte col : moves) {
+            board.play(col, player);
+            if (board.isWinAt(col))
+                return player;
+            player = SearchEngine.opponent(player);
+        }
+        return moves.length == size * size ? Status.NEITHER : null;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // firstDifference
+     * //
+     * // PURPOSE: compares the moves of two games played from the same start.
+     * //
+     * // PARAMETERS:
+     * //      other - the other game.
+     * //RETURN:
+     * //      return the index of the first move where the games differ, or
+     * //      where the shorter one ends, or -1 if the moves are the same.
+     * //------------------------------------------------------
+     **/
+    public int firstDifference(GameSnapshot other) {
+        int n = Math.min(moves.length, other.moves.length);
+        for (int i = 0; i < n; i++) {
+            if (moves[i] != other.moves[i])
+                return i;
+        }
+        return moves.length == other.moves.length ? -1 : n;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // getSize
+     * //
+     * // RETURN:
+     * //      return the size of the board.
+     * //------------------------------------------------------
+     **/
+    public int getSize() {
+        return size;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // isOneFirst
+     * //
+     * // RETURN:
+     * //      return true if player ONE moved first.
+     * //------------------------------------------------------
+     **/
+    public boolean isOneFirst() {
+        return oneFirst;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // isSeeded
+     * //
+     * // RETURN:
+     * //      return true if the seed of the random choices is known.
+     * //------------------------------------------------------
+     **/
+    public boolean isSeeded() {
+        return seeded;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // getSeed
+     * //
+     * // RETURN:
+     * //      return the seed of the random choices of the game, 0 if not seeded.
+     * //------------------------------------------------------
+     **/
+    public long getSeed() {
+        return seed;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // getDepth
+     * //
+     * // RETURN:
+     * //      return the search depth of the AI, 0 for the pattern checks.
+     * //------------------------------------------------------
+     **/
+    public int getDepth() {
+        return depth;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // getMoveCount
+     * //
+     * // RETURN:
+     * //      return the number of moves played.
+     * //------------------------------------------------------
+     **/
+    public int getMoveCount() {
+        return moves.length;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // getMove
+     * //
+     * // PARAMETERS:
+     * //      i - the index of the move, counted from 0.
+     * //RETURN:
+     * //      return the column of move i.
+     * //------------------------------------------------------
+     **/
+    public int getMove(int i) {
+        return moves[i];
+    }
+
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof GameSnapshot))
+            return false;
+        GameSnapshot other = (GameSnapshot) o;
+        return size == other.size && oneFirst == other.oneFirst && seeded == other.seeded
+                && seed == other.seed && depth == other.depth && Arrays.equals(moves, other.moves);
+    }
+
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * (31 * size + (oneFirst ? 1 : 0)) + Long.hashCode(seed)) + Arrays.hashCode(moves);
+    }
+}
@@ -1,3 +1,5 @@
 public interface Human {
      void setAnswer(int col);
+     void quit();
+     int legalMoves();
 }
@@ -80,6 +80,23 @@ public class HumanPlayer implements Player, Human {
     }
 
 
+    /**
+     * //------------------------------------------------------
+     * // restoreMove
+     * //
+     * // PURPOSE: called when a saved game is resumed, once for every move
+     * //          already played. Calls restoreMove on ui.
+     * //
+     * // PARAMETERS:
+     * //      col - the column of the move.
+     * //      own - true if the human made the move.
+     * //------------------------------------------------------
+     **/
+    public void restoreMove(int col, boolean own) {
+        ui.restoreMove(col, own);
+    }
+
+
     /**
      * //------------------------------------------------------
      * // setAnswer
@@ -96,4 +113,31 @@ public class HumanPlayer implements Player, Human {
         this.col = col;
         gl.setAnswer(col);
     }
+
+
+    /**
+     * //------------------------------------------------------
+     * // legalMoves
+     * //
+     * // RETURN:
+     * //      return a mask with bit c set for every column c the human can
+     * //      play, as the game keeps it.
+     * //------------------------------------------------------
+     **/
+    public int legalMoves() {
+        return gl.legalMoves();
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // quit
+     * //
+     * // PURPOSE: called by the ui when the human closes the game.
+     * //          Calls quit on gl so the AI stops thinking.
+     * //------------------------------------------------------
+     **/
+    public void quit() {
+        gl.quit();
+    }
 }
@@ -0,0 +1,388 @@
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * // CLASS: MctsPlayer
+ * //
+ * // REMARKS: An AI player that picks moves with Monte Carlo Tree Search instead
+ * //          of a fixed-depth search. It plays many games to the end with random
+ * //          moves ("playouts") and grows a tree of the moves that did well, using
+ * //          UCT to balance trying the best moves against trying the rest. It keeps
+ * //          getting better the longer it thinks, so it suits large boards, where
+ * //          too many moves make a deep alpha-beta search too slow.
+ * //
+ * //          Several threads grow the same tree at once. A thread going down the
+ * //          tree counts its visit before its playout is done, a lost game until
+ * //          the result comes in ("virtual loss"), so the other threads spread out
+ * //          over other moves. The counters are atomic and the nodes are taken from
+ * //          arrays made once, so no lock is taken and a playout, which only plays
+ * //          and undoes moves on the thread's own BitBoard, makes no objects.
+ * //
+ * //          Like AIplayer, this player moves as Status.TWO.
+ * //
+ * //-----------------------------------------
+ **/
+public class MctsPlayer implements Player {
+    private static final double EXPLORATION = 1.4;  //weight of the UCT exploration term
+    private static final int EXPAND_VISITS = 4;     //visits before a node gets children
+    private static final int BYTES_PER_NODE = 18;   //four ints and two bytes
+    private static final int UNEXPANDED = 0;    //node state: no children yet
+    private static final int EXPANDING = 1;     //node state: a thread is adding its children
+    private static final int EXPANDED = 2;      //node state: children ready
+    private static final int NO_ROOM = 3;       //node state: the arrays were full, stays a leaf
+
+    private final long thinkMillis;     //time for one move
+    private final int threads;  //threads growing the tree, the calling one included
+    private final Random random;     //seeds the playouts of every move
+    private final ExecutorService pool;     //threads helping the calling one, or null
+    private final EngineMetrics metrics = EngineMetrics.get();  //counters published over JMX
+
+    private final AtomicIntegerArray visits;    //visits of every node, virtual ones included
+    private final AtomicIntegerArray score;     //2 per win and 1 per draw of the player moving into the node
+    private final AtomicIntegerArray state;     //UNEXPANDED, EXPANDING, EXPANDED or NO_ROOM
+    private final int[] firstChild;     //index of the first child of every expanded node
+    private final byte[] childCount;    //number of children of every expanded node
+    private final byte[] move;  //column played to reach every node
+    private final AtomicInteger used = new AtomicInteger();     //nodes handed out
+
+    private int size;   //size of the board
+    private GameLogic gl;   //the game
+    private BitBoard board;     //the position of the game
+    private int rootMoves;  //moves tried at the root, one of every mirrored pair on a symmetric board
+    private long playouts;  //playouts of the last move
+
+
+    /**
+     * //------------------------------------------------------
+     * // MctsPlayer
+     * //
+     * // PARAMETERS:
+     * //      thinkMillis - the time for one move.
+     * //      threads - the threads to use, the calling one included.
+     * //      megabytes - the memory of the tree, at least 1.
+     * //      random - where the playouts get their random moves.
+     * //------------------------------------------------------
+     **/
+    public MctsPlayer(long thinkMillis, int threads, int megabytes, Random random) {
+        this.thinkMillis = thinkMillis;
+        this.threads = Math.max(1, threads);
+        this.random = random;
+        int capacity = (int) Math.min(Integer.MAX_VALUE / 2, ((long) megabytes << 20) / BYTES_PER_NODE);
+        visits = new AtomicIntegerArray(capacity);
+        score = new AtomicIntegerArray(capacity);
+        state = new AtomicIntegerArray(capacity);
+        firstChild = new int[capacity];
+        childCount = new byte[capacity];
+        move = new byte[capacity];
+        pool = this.threads == 1 ? null : Executors.newFixedThreadPool(this.threads - 1, r -> {
+            Thread thread = new Thread(r, "mcts-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+
+    public void setInfo(int size, GameLogic gl) {
+        this.size = size;
+        this.gl = gl;
+        board = new BitBoard(size);
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // lastMove
+     * //
+     * // PURPOSE: adds the move of the opponent to the board, grows a new tree
+     * //          for thinkMillis and plays the move visited the most.
+     * //
+     * // PARAMETERS:
+     * //      lastCol - column where the opponent played, or -1 on the first move.
+     * //------------------------------------------------------
+     **/
+    public void lastMove(int lastCol) {
+        if (lastCol != -1)
+            board.play(lastCol, Status.ONE);
+        long start = System.nanoTime();
+        int col = chooseMove();
+        metrics.moveChosen(System.nanoTime() - start);
+        board.play(col, Status.TWO);
+        gl.setAnswer(col);
+    }
+
+
+    public void gameOver(Status winner) {
+    }
+
+
+    public void restoreMove(int col, boolean own) {
+        board.play(col, own ? Status.TWO : Status.ONE);
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // getPlayouts
+     * //
+     * // RETURN:
+     * //      return the number of playouts made for the last move.
+     * //------------------------------------------------------
+     **/
+    public long getPlayouts() {
+        return playouts;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // shutdown
+     * //
+     * // PURPOSE: stops the helper threads once no more moves are needed.
+     * //------------------------------------------------------
+     **/
+    public void shutdown() {
+        if (pool != null)
+            pool.shutdown();
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // chooseMove
+     * //
+     * // PURPOSE: private helper method that plays a win or blocks a loss at
+     * //          once, and otherwise grows the tree on all threads.
+     * //
+     * // RETURN:
+     * //      return the column to play.
+     * //------------------------------------------------------
+     **/
+    private int chooseMove() {
+        int forced = winningColumn(Status.TWO);
+        if (forced == -1)
+            forced = winningColumn(Status.ONE);
+        if (forced != -1)
+            return forced;
+
+        rootMoves = board.symmetricMoves();
+        used.set(1);
+        visits.set(0, 0);
+        score.set(0, 0);
+        state.set(0, UNEXPANDED);
+        long deadline = System.nanoTime() + thinkMillis * 1000000;
+
+        Future<?>[] helpers = new Future<?>[threads - 1];
+        for (int i = 0; i < helpers.length; i++) {
+            Worker worker = new Worker(random.nextLong());
+            helpers[i] = pool.submit(() -> worker.run(deadline));
+        }
+        playouts = new Worker(random.nextLong()).run(deadline);
+        for (Future<?> f : helpers) {
+            try {
+                playouts += (Long) f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                e.printStackTrace();
+            }
+        }
+
+        int best = -1;
+        if (state.get(0) == EXPANDED) {
+            int first = firstChild[0];
+            for (int c = first; c < first + childCount[0]; c++) {
+                if (best == -1 || visits.get(c) > visits.get(best))
+                    best = c;
+            }
+        }
+        return best == -1 ? Integer.numberOfTrailingZeros(board.legalMoves()) : move[best];
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // winningColumn
+     * //
+     * // PARAMETERS:
+     * //      side - the player to check.
+     * //RETURN:
+     * //      return a column where the player would win at once, or -1.
+     * //------------------------------------------------------
+     **/
+    private int winningColumn(Status side) {
+        for (int legal = board.legalMoves(); legal != 0; legal &= legal - 1) {
+            int col = Integer.numberOfTrailingZeros(legal);
+            board.play(col, side);
+            boolean win = board.isWinAt(col);
+            board.undo(col);
+            if (win)
+                return col;
+        }
+        return -1;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // CLASS: Worker
+     * //
+     * // REMARKS: One thread growing the tree, with its own copy of the board and
+     * //          room for the path and the moves of one playout.
+     * //------------------------------------------------------
+     **/
+    private class Worker {
+        private final BitBoard position = new BitBoard(board);  //the board, played on and undone
+        private final int[] path = new int[size * size + 1];    //nodes from the root down
+        private final int[] played = new int[size * size];  //columns played since the root
+        private final SplittableRandom rnd;     //random moves of the playouts
+
+        Worker(long seed) {
+            rnd = new SplittableRandom(seed);
+        }
+
+
+        /**
+         * //------------------------------------------------------
+         * // run
+         * //
+         * // PURPOSE: goes down the tree, plays out and counts the result, over
+         * //          and over until the deadline.
+         * //
+         * // RETURN:
+         * //      return the number of playouts.
+         * //------------------------------------------------------
+         **/
+        long run(long deadline) {
+            long count = 0;
+            do {
+                iterate();
+                count++;
+            } while ((count & 15) != 0 || System.nanoTime() < deadline);
+            return count;
+        }
+
+
+        private void iterate() {
+            int node = 0;
+            int depth = 0;
+            int moves = 0;
+            Status side = Status.TWO;
+            Status result = null;
+            path[depth++] = node;
+            visits.incrementAndGet(node);
+
+            while (result == null) {
+                if (state.get(node) != EXPANDED) {
+                    if (node == 0 || visits.get(node) >= EXPAND_VISITS)
+                        expand(node);
+                    if (state.get(node) != EXPANDED)
+                        break;
+                }
+                node = select(node);
+                visits.incrementAndGet(node);   //the virtual loss, until the result is added
+                path[depth++] = node;
+                int col = move[node];
+                position.play(col, side);
+                played[moves++] = col;
+                if (position.isWinAt(col))
+                    result = side;
+                else if (position.getMoves() == size * size)
+                    result = Status.NEITHER;
+                else
+                    side = SearchEngine.opponent(side);
+            }
+
+            //play out at random from the leaf
+            while (result == null) {
+                int legal = position.legalMoves();
+                for (int k = rnd.nextInt(Integer.bitCount(legal)); k > 0; k--) {
+                    legal &= legal - 1;
+                }
+                int col = Integer.numberOfTrailingZeros(legal);
+                position.play(col, side);
+                played[moves++] = col;
+                if (position.isWinAt(col))
+                    result = side;
+                else if (position.getMoves() == size * size)
+                    result = Status.NEITHER;
+                else
+                    side = SearchEngine.opponent(side);
+            }
+
+            //path[i] was reached by a move of TWO for odd i, of ONE for even i
+            for (int i = 1; i < depth; i++) {
+                Status mover = i % 2 == 1 ? Status.TWO : Status.ONE;
+                if (result == mover)
+                    score.addAndGet(path[i], 2);
+                else if (result == Status.NEITHER)
+                    score.addAndGet(path[i], 1);
+            }
+            while (moves > 0) {
+                position.undo(played[--moves]);
+            }
+        }
+
+
+        /**
+         * //------------------------------------------------------
+         * // select
+         * //
+         * // PURPOSE: picks the child with the best UCT value, or the first one
+         * //          not visited yet.
+         * //------------------------------------------------------
+         **/
+        private int select(int node) {
+            int first = firstChild[node];
+            double logVisits = Math.log(visits.get(node));
+            int best = first;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int c = first; c < first + childCount[node]; c++) {
+                int v = visits.get(c);
+                if (v == 0)
+                    return c;
+                double value = score.get(c) / (2.0 * v) + EXPLORATION * Math.sqrt(logVisits / v);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = c;
+                }
+            }
+            return best;
+        }
+
+
+        /**
+         * //------------------------------------------------------
+         * // expand
+         * //
+         * // PURPOSE: gives a node one child per legal move, unless another thread
+         * //          is already doing it or the arrays are full.
+         * //------------------------------------------------------
+         **/
+        private void expand(int node) {
+            if (!state.compareAndSet(node, UNEXPANDED, EXPANDING))
+                return;
+            int legal = node == 0 ? rootMoves : position.legalMoves();
+            int count = Integer.bitCount(legal);
+            int first = used.getAndAdd(count);
+            if (first + count > visits.length()) {
+                state.set(node, NO_ROOM);
+                return;
+            }
+            for (int c = first; legal != 0; c++, legal &= legal - 1) {
+                move[c] = (byte) Integer.numberOfTrailingZeros(legal);
+                visits.set(c, 0);
+                score.set(c, 0);
+                state.set(c, UNEXPANDED);
+            }
+            firstChild[node] = first;
+            childCount[node] = (byte) count;
+            state.set(node, EXPANDED);  //publishes the children to the other threads
+        }
+    }
+}
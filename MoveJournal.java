@@ -0,0 +1,199 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * // CLASS: MoveJournal
+ * //
+ * // REMARKS: A file that records the moves of one game as they are played, so
+ * //          the game can be rebuilt after a crash. The file is memory-mapped and
+ * //          has room for the longest game, so recording a move is a single byte
+ * //          written to memory: no system call and no object is made. The bytes
+ * //          reach the file even if the program dies; call force to also survive
+ * //          the machine going down.
+ * //              int MAGIC, byte size, byte flags (1: player ONE moved first,
+ * //              2: the seed and depth are known), long seed, byte search depth,
+ * //              then one byte per move: column + 1, 0 where no move was made yet.
+ * //          Moves are only ever appended; begin starts the file over for a new game.
+ * //
+ * //-----------------------------------------
+ **/
+public class MoveJournal implements AutoCloseable {
+    private static final int MAGIC = 0x43344A33;    //"C4J3", the journal with a seed and a depth
+    private static final int HEADER_BYTES = 15;     //magic, size, flags, seed and depth
+    private static final int MAX_MOVES = 12 * 12;   //moves in the longest game
+
+    private final FileChannel channel;  //the open file
+    private final MappedByteBuffer buffer;  //the whole file, in memory
+    private int count;  //moves recorded
+
+
+    /**
+     * //------------------------------------------------------
+     * // MoveJournal
+     * //
+     * // PURPOSE: private constructor that maps an open file.
+     * //------------------------------------------------------
+     **/
+    private MoveJournal(FileChannel channel) throws IOException {
+        this.channel = channel;
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + MAX_MOVES);
+        while (count < MAX_MOVES && buffer.get(HEADER_BYTES + count) != 0) {
+            count++;
+        }
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // open
+     * //
+     * // PURPOSE: opens a journal, creating the file if it does not exist. The
+     * //          moves already in it are kept until begin is called.
+     * //
+     * // PARAMETERS:
+     * //      path - the file of the journal.
+     * //RETURN:
+     * //      return the journal.
+     * //------------------------------------------------------
+     **/
+    public static MoveJournal open(Path path) throws IOException {
+        return new MoveJournal(FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE));
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // read
+     * //
+     * // PURPOSE: reads the game recorded in a journal file without mapping it.
+     * //
+     * // PARAMETERS:
+     * //      path - the file of the journal.
+     * //RETURN:
+     * //      return the game, or null if the file holds none.
+     * //------------------------------------------------------
+     **/
+    public static GameSnapshot read(Path path) throws IOException {
+        return recover(ByteBuffer.wrap(Files.readAllBytes(path)));
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // recover
+     * //
+     * //RETURN:
+     * //      return the game recorded in this journal, or null if there is none
+     * //      or the file is damaged.
+     * //------------------------------------------------------
+     **/
+    public GameSnapshot recover() {
+        return recover(buffer);
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // begin
+     * //
+     * // PURPOSE: starts recording a new game, wiping the previous one.
+     * //
+     * // PARAMETERS:
+     * //      size - the size of the board.
+     * //      oneFirst - true if player ONE moves first.
+     * //      seeded - true if the seed of the random choices of the game is known.
+     * //      seed - the seed, or 0.
+     * //      depth - the search depth of the AI, 0 for the pattern checks.
+     * //------------------------------------------------------
+     **/
+    public void begin(int size, boolean oneFirst, boolean seeded, long seed, int depth) {
+        //clear the moves before the header, so a crash in between leaves no game
+        buffer.putInt(0, 0);
+        for (int i = 0; i < count; i++) {
+            buffer.put(HEADER_BYTES + i, (byte) 0);
+        }
+        count = 0;
+        buffer.put(4, (byte) size);
+        buffer.put(5, (byte) ((oneFirst ? 1 : 0) | (seeded ? 2 : 0)));
+        buffer.putLong(6, seed);
+        buffer.put(14, (byte) depth);
+        buffer.putInt(0, MAGIC);
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // append
+     * //
+     * // PURPOSE: records the next move of the game.
+     * //
+     * // PARAMETERS:
+     * //      col - the column played.
+     * //------------------------------------------------------
+     **/
+    public void append(int col) {
+        if (count == MAX_MOVES)
+            throw new IllegalStateException("Journal is full");
+        buffer.put(HEADER_BYTES + count++, (byte) (col + 1));
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // force
+     * //
+     * // PURPOSE: writes the recorded moves to the disk.
+     * //------------------------------------------------------
+     **/
+    public void force() {
+        buffer.force();
+    }
+
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // recover
+     * //
+     * // PURPOSE: private helper method that decodes the game in a journal.
+     * //
+     * // PARAMETERS:
+     * //      bytes - the contents of the journal file.
+     * //RETURN:
+     * //      return the game, or null if there is none or it cannot be read.
+     * //------------------------------------------------------
+     **/
+    private static GameSnapshot recover(ByteBuffer bytes) {
+        if (bytes.limit() < HEADER_BYTES || bytes.getInt(0) != MAGIC)
+            return null;
+        int n = 0;
+        while (HEADER_BYTES + n < bytes.limit() && n < MAX_MOVES && bytes.get(HEADER_BYTES + n) != 0) {
+            n++;
+        }
+        byte[] moves = new byte[n];
+        for (int i = 0; i < n; i++) {
+            moves[i] = (byte) (bytes.get(HEADER_BYTES + i) - 1);
+        }
+        int flags = bytes.get(5);
+        try {
+            if ((flags & 2) != 0)
+                return new GameSnapshot(bytes.get(4), (flags & 1) != 0, moves, bytes.getLong(6), bytes.get(14) & 0xFF);
+            return new GameSnapshot(bytes.get(4), (flags & 1) != 0, moves);
+        } catch (IllegalArgumentException e) {
+            //a file cut short or damaged, e.g. by a crash while writing, holds no game to go on with
+            System.out.println("Ignoring damaged journal: " + e.getMessage());
+            return null;
+        }
+    }
+}
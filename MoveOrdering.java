@@ -0,0 +1,193 @@
+import java.util.Arrays;
+
+/**
+ * // CLASS: MoveOrdering
+ * //
+ * // REMARKS: Decides in which order the search tries the moves of a position.
+ * //          Alpha-beta prunes the most when the best move comes first, so the
+ * //          moves are tried in this order:
+ * //              1. the best move stored in the transposition table,
+ * //              2. the two "killer" moves that last caused a cutoff at the same ply,
+ * //              3. the rest, by their history score (how often and how deep
+ * //                 the same piece in the same cell caused a cutoff), ties going
+ * //                 to the column nearest the center.
+ * //          All tables are primitive arrays, owned by one search thread.
+ * //
+ * //-----------------------------------------
+ **/
+public class MoveOrdering {
+    public static final int MAX_PLY = 256;  //more plies than any game can last
+
+    private static final int[][] CENTER_ORDERS = new int[13][];   //center-first columns, by size
+    private static final int TABLE_SCORE = 1 << 30;     //sort key of the table move
+    private static final int KILLER_SCORE = 1 << 29;    //sort key of the first killer move
+
+    private final int size;     //size of the board
+    private final int[] center;     //columns from the center out
+    private final int[] killers;    //two killer columns per ply, -1 if none
+    private final int[] history;    //cutoff score per side, column and row
+    private final int[] keys;   //sort keys of the moves being ordered
+
+
+    /**
+     * //------------------------------------------------------
+     * // MoveOrdering
+     * //
+     * // PURPOSE: constructor that creates empty tables for a board size.
+     * //
+     * // PARAMETERS:
+     * //      size - the size of the board
+     * //------------------------------------------------------
+     **/
+    public MoveOrdering(int size) {
+        this.size = size;
+        center = centerOrder(size);
+        killers = new int[MAX_PLY * 2];
+        history = new int[2 * size * size];
+        keys = new int[size];
+        clear();
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // centerOrder
+     * //
+     * // PURPOSE: lists the columns from the center out, since central pieces
+     * //          take part in the most lines. The list is made once per size
+     * //          and shared, so it must not be changed.
+     * //
+     * // PARAMETERS:
+     * //      size - the size of the board
+     * //RETURN:
+     * //      return the columns in center-first order.
+     * //------------------------------------------------------
+     **/
+    public static synchronized int[] centerOrder(int size) {
+        if (CENTER_ORDERS[size] == null) {
+            int[] cols = new int[size];
+            for (int i = 0; i < size; i++) {
+                int offset = (i + 1) / 2;
+                cols[i] = (size - 1) / 2 + (i % 2 == 1 ? offset : -offset);
+            }
+            CENTER_ORDERS[size] = cols;
+        }
+        return CENTER_ORDERS[size];
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // clear
+     * //
+     * // PURPOSE: forgets all killer moves and history scores.
+     * //------------------------------------------------------
+     **/
+    public void clear() {
+        Arrays.fill(killers, -1);
+        Arrays.fill(history, 0);
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // age
+     * //
+     * // PURPOSE: called before every new move decision. Halves the history
+     * //          scores so older positions count less, and forgets the killers,
+     * //          which belong to plies of the previous decision.
+     * //------------------------------------------------------
+     **/
+    public void age() {
+        Arrays.fill(killers, -1);
+        for (int i = 0; i < history.length; i++) {
+            history[i] >>= 1;
+        }
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // order
+     * //
+     * // PURPOSE: puts the legal moves of a position in the order to try them.
+     * //
+     * // PARAMETERS:
+     * //      board - the position.
+     * //      side - the player to move.
+     * //      ply - the distance of the position from the root.
+     * //      tableMove - the move stored in the transposition table, or -1.
+     * //      moves - where to write the moves, at least size long.
+     * //RETURN:
+     * //      return the number of moves written.
+     * //------------------------------------------------------
+     **/
+    public int order(BitBoard board, Status side, int ply, int tableMove, int[] moves) {
+        int legal = board.legalMoves();
+        int base = sideIndex(side) * size * size;
+        int count = 0;
+
+        for (int col : center) {
+            if ((legal & (1 << col)) == 0)
+                continue;
+            int key;
+            if (col == tableMove)
+                key = TABLE_SCORE;
+            else if (col == killers[ply * 2])
+                key = KILLER_SCORE;
+            else if (col == killers[ply * 2 + 1])
+                key = KILLER_SCORE - 1;
+            else
+                key = history[base + col * size + (size - 1 - board.drop(col))];
+
+            //insertion sort, stable so equal keys keep the center-first order
+            int i = count++;
+            while (i > 0 && keys[i - 1] < key) {
+                keys[i] = keys[i - 1];
+                moves[i] = moves[i - 1];
+                i--;
+            }
+            keys[i] = key;
+            moves[i] = col;
+        }
+        return count;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // cutoff
+     * //
+     * // PURPOSE: called when a move was good enough to stop the search of its
+     * //          position. It becomes the first killer of the ply and its history
+     * //          score grows by the square of the depth left.
+     * //
+     * // PARAMETERS:
+     * //      board - the position, before the move is played.
+     * //      side - the player to move.
+     * //      col - the move that caused the cutoff.
+     * //      ply - the distance of the position from the root.
+     * //      depth - the depth left in the position.
+     * //------------------------------------------------------
+     **/
+    public void cutoff(BitBoard board, Status side, int col, int ply, int depth) {
+        if (killers[ply * 2] != col) {
+            killers[ply * 2 + 1] = killers[ply * 2];
+            killers[ply * 2] = col;
+        }
+        int cell = sideIndex(side) * size * size + col * size + (size - 1 - board.drop(col));
+        history[cell] = Math.min(history[cell] + depth * depth, KILLER_SCORE - 2);
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // sideIndex
+     * //
+     * // PURPOSE: private helper method that turns a player into a table index.
+     * //------------------------------------------------------
+     **/
+    private static int sideIndex(Status side) {
+        return side == Status.ONE ? 0 : 1;
+    }
+}
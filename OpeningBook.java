@@ -0,0 +1,171 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * // CLASS: OpeningBook
+ * //
+ * // REMARKS: A book of opening moves for one board size, made ahead of time by
+ * //          OpeningBookGenerator. The book file is memory-mapped instead of read,
+ * //          so opening it costs almost nothing and the pages are shared by every
+ * //          AI in the process (and by other processes reading the same file).
+ * //
+ * //          File layout: a header of MAGIC, the board size and the number of
+ * //          entries, then the entries sorted by key. Every entry is the position
+ * //          key (canonical Zobrist hash with the side to move mixed in), the score
+ * //          and the best move, so a lookup is a binary search over the mapped
+ * //          file. A position and its mirror image share one entry, whose move is
+ * //          the one for the canonical board (see BitBoard.getCanonicalHash).
+ * //
+ * //-----------------------------------------
+ **/
+public class OpeningBook {
+    public static final int MAGIC = 0x4334424D;     //"C4BM", books keyed by canonical hash
+    public static final String DIRECTORY = "./books";   //where the book files are kept
+    static final int HEADER_BYTES = 12;     //magic, size and count
+    static final int ENTRY_BYTES = 16;      //long key, int score, int move
+
+    private static final OpeningBook[] BOOKS = new OpeningBook[13];     //books opened so far, by size
+    private static final boolean[] LOOKED = new boolean[13];    //sizes already looked for
+
+    private final ByteBuffer buffer;    //the mapped book file
+    private final int size;     //board size of the book
+    private final int count;    //number of entries
+
+
+    /**
+     * //------------------------------------------------------
+     * // OpeningBook
+     * //
+     * // PURPOSE: private constructor that checks the header of a mapped book.
+     * //
+     * // PARAMETERS:
+     * //      buffer - the mapped book file.
+     * //------------------------------------------------------
+     **/
+    private OpeningBook(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC)
+            throw new IOException("not an opening book");
+        size = buffer.getInt(4);
+        count = buffer.getInt(8);
+        if (buffer.capacity() < HEADER_BYTES + (long) count * ENTRY_BYTES)
+            throw new IOException("opening book is cut short");
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // forSize
+     * //
+     * // PURPOSE: finds the book for a board size in DIRECTORY. A book is mapped
+     * //          once and shared by all callers.
+     * //
+     * // PARAMETERS:
+     * //      size - the size of the board
+     * //RETURN:
+     * //      return the book, or null if there is none for that size.
+     * //------------------------------------------------------
+     **/
+    public static synchronized OpeningBook forSize(int size) {
+        if (!LOOKED[size]) {
+            LOOKED[size] = true;
+            Path path = fileFor(Paths.get(DIRECTORY), size);
+            if (Files.isReadable(path)) {
+                try {
+                    BOOKS[size] = open(path);
+                } catch (IOException e) {
+                    System.out.println("Cannot read opening book " + path + ": " + e.getMessage());
+                }
+            }
+        }
+        return BOOKS[size];
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // open
+     * //
+     * // PURPOSE: memory-maps a book file.
+     * //
+     * // PARAMETERS:
+     * //      path - the book file.
+     * //RETURN:
+     * //      return the book.
+     * //------------------------------------------------------
+     **/
+    public static OpeningBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new OpeningBook(mapped);
+        }
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // fileFor
+     * //
+     * // PARAMETERS:
+     * //      directory - the directory of the books.
+     * //      size - the size of the board
+     * //RETURN:
+     * //      return the path of the book for that size.
+     * //------------------------------------------------------
+     **/
+    public static Path fileFor(Path directory, int size) {
+        return directory.resolve("book" + size + ".bin");
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // lookup
+     * //
+     * // PURPOSE: finds the best move of a position with a binary search.
+     * //
+     * // PARAMETERS:
+     * //      board - the position.
+     * //      side - the player to move.
+     * //RETURN:
+     * //      return the column to play, or -1 if the position is not in the book.
+     * //------------------------------------------------------
+     **/
+    public int lookup(BitBoard board, Status side) {
+        if (board.size() != size)
+            return -1;
+        long key = Zobrist.withSide(board.getCanonicalHash(), side);
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long found = buffer.getLong(HEADER_BYTES + mid * ENTRY_BYTES);
+            if (found < key)
+                low = mid + 1;
+            else if (found > key)
+                high = mid - 1;
+            else
+                return board.canonicalColumn(buffer.getInt(HEADER_BYTES + mid * ENTRY_BYTES + 12));
+        }
+        return -1;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // getCount
+     * //
+     * // RETURN:
+     * //      return the number of positions in the book.
+     * //------------------------------------------------------
+     **/
+    public int getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,143 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * // CLASS: OpeningBookGenerator
+ * //
+ * // REMARKS: Offline tool that writes the opening books read by OpeningBook.
+ * //          For every board size asked for, it walks every position up to a
+ * //          number of plies from the empty board, with either player moving
+ * //          first, searches each one and saves the best move and its score.
+ * //
+ * //          Usage: java OpeningBookGenerator plies depth [size ...]
+ * //          With no sizes given, books for every size from 6 to 12 are made.
+ * //
+ * //-----------------------------------------
+ **/
+public class OpeningBookGenerator {
+    private final int plies;    //deepest position put in the book, in plies
+    private final SearchEngine engine;  //search used to score the positions
+    private final Map<Long, int[]> entries = new TreeMap<Long, int[]>();  //key -> {score, move}
+
+
+    /**
+     * //------------------------------------------------------
+     * // OpeningBookGenerator
+     * //
+     * // PURPOSE: constructor that sets how big and how good the books are.
+     * //
+     * // PARAMETERS:
+     * //      plies - the deepest position put in the book, in plies.
+     * //      depth - the depth every position is searched to.
+     * //------------------------------------------------------
+     **/
+    public OpeningBookGenerator(int plies, int depth) {
+        this.plies = plies;
+        engine = new SearchEngine(depth, 0, new TranspositionTable(256));
+    }
+
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java OpeningBookGenerator plies depth [size ...]");
+            return;
+        }
+        int plies = Integer.parseInt(args[0]);
+        int depth = Integer.parseInt(args[1]);
+        Path directory = Paths.get(OpeningBook.DIRECTORY);
+        Files.createDirectories(directory);
+
+        int from = args.length > 2 ? 2 : 0;
+        int to = args.length > 2 ? args.length : 7;
+        for (int i = from; i < to; i++) {
+            int size = args.length > 2 ? Integer.parseInt(args[i]) : 6 + i;
+            long start = System.currentTimeMillis();
+            OpeningBookGenerator generator = new OpeningBookGenerator(plies, depth);
+            int count = generator.generate(size, OpeningBook.fileFor(directory, size));
+            System.out.println("Size " + size + ": " + count + " positions in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        }
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // generate
+     * //
+     * // PURPOSE: builds the book for one size and writes it. The file is written
+     * //          beside the target first and then moved over it, so a reader never
+     * //          maps a half-written book.
+     * //
+     * // PARAMETERS:
+     * //      size - the size of the board
+     * //      path - the book file to write.
+     * //RETURN:
+     * //      return the number of positions in the book.
+     * //------------------------------------------------------
+     **/
+    public int generate(int size, Path path) throws IOException {
+        entries.clear();
+        visit(new BitBoard(size), Status.ONE, 0);
+        visit(new BitBoard(size), Status.TWO, 0);
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(OpeningBook.MAGIC);
+            out.writeInt(size);
+            out.writeInt(entries.size());
+            for (Map.Entry<Long, int[]> e : entries.entrySet()) {
+                out.writeLong(e.getKey());
+                out.writeInt(e.getValue()[0]);
+                out.writeInt(e.getValue()[1]);
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return entries.size();
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // visit
+     * //
+     * // PURPOSE: private helper method that searches a position, saves it and
+     * //          goes on to every position one ply further, until the game is over
+     * //          or the ply limit is reached. Positions met twice, or met again as
+     * //          their mirror image, are searched once.
+     * //
+     * // PARAMETERS:
+     * //      board - the position.
+     * //      side - the player to move.
+     * //      ply - the number of moves played.
+     * //------------------------------------------------------
+     **/
+    private void visit(BitBoard board, Status side, int ply) {
+        long key = Zobrist.withSide(board.getCanonicalHash(), side);
+        if (entries.containsKey(key))
+            return;
+
+        int move = engine.bestMove(board, side);
+        if (move < 0)
+            return;
+        entries.put(key, new int[]{engine.getScore(), board.canonicalColumn(move)});
+
+        if (ply == plies)
+            return;
+        int legal = board.legalMoves();
+        for (int col = 0; col < board.size(); col++) {
+            if ((legal & (1 << col)) == 0)
+                continue;
+            board.play(col, side);
+            if (!board.isWinAt(col))
+                visit(board, SearchEngine.opponent(side), ply + 1);
+            board.undo(col);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * // CLASS: ParallelSearch
+ * //
+ * // REMARKS: Spreads one move decision over several threads ("Lazy SMP"). Every
+ * //          thread runs its own SearchEngine on its own copy of the board, and
+ * //          all of them share one TranspositionTable. The helper threads fill the
+ * //          table with results the main thread then finds instead of searching
+ * //          again. Half of the helpers aim one ply deeper than the main thread so
+ * //          that they do not all walk the same tree in step. The move of the main
+ * //          thread is the one played; the helpers are stopped as soon as it is done.
+ * //
+ * //-----------------------------------------
+ **/
+public class ParallelSearch implements Search {
+    private final SearchEngine main;    //the search whose move is played
+    private final SearchEngine[] helpers;   //searches that only fill the shared table
+    private final ExecutorService pool;     //threads running the helpers
+    private AtomicBoolean stopFlag;    //set from outside to end the search early, or null
+
+
+    /**
+     * //------------------------------------------------------
+     * // ParallelSearch
+     * //
+     * // PURPOSE: constructor that creates the searches and the helper threads.
+     * //
+     * // PARAMETERS:
+     * //      threads - the number of threads to use, the calling one included.
+     * //      maxDepth - the deepest iteration the main thread searches, in plies.
+     * //      maxNodes - the number of nodes allowed to every thread for one move,
+     * //                 0 for no limit.
+     * //      table - the transposition table shared by all threads.
+     * //------------------------------------------------------
+     **/
+    public ParallelSearch(int threads, int maxDepth, long maxNodes, TranspositionTable table) {
+        main = new SearchEngine(maxDepth, maxNodes, table);
+        helpers = new SearchEngine[Math.max(0, threads - 1)];
+        for (int i = 0; i < helpers.length; i++) {
+            helpers[i] = new SearchEngine(maxDepth + (i % 2), maxNodes, table);
+            helpers[i].setReporting(SearchEngine.REPORT_NODES);
+        }
+        pool = helpers.length == 0 ? null : Executors.newFixedThreadPool(helpers.length, r -> {
+            Thread thread = new Thread(r, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // bestMove
+     * //
+     * // PURPOSE: starts the helpers on copies of the board, searches the board on
+     * //          the calling thread, then stops the helpers and waits for them.
+     * //          Once shutdown was called, or the stop flag is already set, the
+     * //          board is searched on the calling thread alone.
+     * //
+     * // PARAMETERS:
+     * //      board - the position to search. It is the same when this returns.
+     * //      side - the player to move.
+     * //RETURN:
+     * //      return the column to play, or -1 if the board is full.
+     * //------------------------------------------------------
+     **/
+    public int bestMove(BitBoard board, Status side) {
+        AtomicBoolean stop = new AtomicBoolean();
+        List<Future<?>> running = new ArrayList<Future<?>>();
+        for (int i = 0; i < helpers.length && (stopFlag == null || !stopFlag.get()); i++) {
+            SearchEngine helper = helpers[i];
+            BitBoard copy = new BitBoard(board);
+            helper.setStopFlag(stop);
+            try {
+                running.add(pool.submit(() -> helper.bestMove(copy, side)));
+            } catch (RejectedExecutionException e) {
+                break;  //shut down while starting, the helpers already running still stop below
+            }
+        }
+
+        int move = main.bestMove(board, side);
+
+        stop.set(true);
+        for (Future<?> f : running) {
+            try {
+                f.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                e.printStackTrace();
+            }
+        }
+        return move;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // setStopFlag
+     * //
+     * // PURPOSE: gives every search a flag that ends it early, with the best
+     * //          move found so far, once another thread sets it. The main search
+     * //          checks the flag itself; the helpers are stopped as soon as the
+     * //          main search returns, and none are started while it is set.
+     * //
+     * // PARAMETERS:
+     * //      stopFlag - the flag, or null for none.
+     * //------------------------------------------------------
+     **/
+    public void setStopFlag(AtomicBoolean stopFlag) {
+        this.stopFlag = stopFlag;
+        main.setStopFlag(stopFlag);
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // shutdown
+     * //
+     * // PURPOSE: stops the helper threads once no more moves are needed.
+     * //------------------------------------------------------
+     **/
+    public void shutdown() {
+        if (pool != null)
+            pool.shutdown();
+    }
+}
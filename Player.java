@@ -2,4 +2,5 @@ public interface Player {
     void lastMove(int lastCol);
     void gameOver(Status winner);
     void setInfo(int size, GameLogic gl);
+    void restoreMove(int col, boolean own);
 }
@@ -0,0 +1,109 @@
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * // CLASS: Ponderer
+ * //
+ * // REMARKS: Lets the AI think during the turn of its opponent ("pondering").
+ * //          Once the AI has moved, the position is searched on a thread of its
+ * //          own from the side of the opponent, which walks the likely replies
+ * //          and the answers of the AI to each of them. The search shares the
+ * //          TranspositionTable of the AI, so when the real reply comes, the
+ * //          search of the AI finds most of its tree already there. The
+ * //          pondering is stopped as soon as the reply comes. The methods are
+ * //          synchronized, since the game may shut the ponderer down from another
+ * //          thread while the AI is moving.
+ * //
+ * //-----------------------------------------
+ **/
+public class Ponderer {
+    private final SearchEngine engine;  //the search run while the opponent thinks
+    private final AtomicBoolean stop = new AtomicBoolean();     //set to end the pondering
+    private final ExecutorService pool;     //the thread the pondering runs on
+    private Future<?> running;  //the pondering under way, or null
+    private boolean shutDown;   //true once shutdown was called
+
+
+    /**
+     * //------------------------------------------------------
+     * // Ponderer
+     * //
+     * // PARAMETERS:
+     * //      maxDepth - the deepest iteration to ponder, in plies. One more than
+     * //                 the depth of the AI covers its whole search of every reply.
+     * //      table - the transposition table of the AI.
+     * //------------------------------------------------------
+     **/
+    public Ponderer(int maxDepth, TranspositionTable table) {
+        engine = new SearchEngine(maxDepth, 0, table);
+        engine.setStopFlag(stop);
+        engine.setReporting(SearchEngine.REPORT_NONE);  //no move was asked for, so it is not engine work
+        pool = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "ponder");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // start
+     * //
+     * // PURPOSE: starts pondering a position, stopping any pondering before.
+     * //          Does nothing once the ponderer was shut down.
+     * //
+     * // PARAMETERS:
+     * //      board - the position after the move of the AI. A copy is searched.
+     * //      opponent - the player to move there.
+     * //------------------------------------------------------
+     **/
+    public synchronized void start(BitBoard board, Status opponent) {
+        if (shutDown)
+            return;
+        stop();
+        stop.set(false);
+        BitBoard copy = new BitBoard(board);
+        running = pool.submit(() -> engine.bestMove(copy, opponent));
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // stop
+     * //
+     * // PURPOSE: stops the pondering and waits for it, so the AI has the CPU
+     * //          to itself.
+     * //------------------------------------------------------
+     **/
+    public synchronized void stop() {
+        if (running == null)
+            return;
+        stop.set(true);
+        try {
+            running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+        }
+        running = null;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // shutdown
+     * //
+     * // PURPOSE: stops the pondering for good once no more moves are needed.
+     * //------------------------------------------------------
+     **/
+    public synchronized void shutdown() {
+        shutDown = true;
+        stop.set(true);
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,71 @@
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * // CLASS: PooledPlayer
+ * //
+ * // REMARKS: Wraps a player whose moves take real computing, like the AI, so that
+ * //          its lastMove runs on a bounded pool of threads. The caller waits for
+ * //          the move to be made, so to the game nothing changes, but however many
+ * //          games ask for moves at once, no more than the pool size compute at a
+ * //          time.
+ * //
+ * //-----------------------------------------
+ **/
+public class PooledPlayer implements Player {
+    private final Player player;    //the wrapped player
+    private final ExecutorService pool;     //threads the moves are computed on
+
+
+    /**
+     * //------------------------------------------------------
+     * // PooledPlayer
+     * //
+     * // PARAMETERS:
+     * //      player - the player to wrap.
+     * //      pool - the threads its moves are computed on.
+     * //------------------------------------------------------
+     **/
+    public PooledPlayer(Player player, ExecutorService pool) {
+        this.player = player;
+        this.pool = pool;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // lastMove
+     * //
+     * // PURPOSE: hands the move of the opponent to the wrapped player on the
+     * //          pool and waits until it has answered.
+     * //
+     * // PARAMETERS:
+     * //      lastCol - column where the opponent played.
+     * //------------------------------------------------------
+     **/
+    public void lastMove(int lastCol) {
+        try {
+            pool.submit(() -> player.lastMove(lastCol)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for a move", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("player failed to move", e.getCause());
+        }
+    }
+
+
+    public void gameOver(Status winner) {
+        player.gameOver(winner);
+    }
+
+
+    public void setInfo(int size, GameLogic gl) {
+        player.setInfo(size, gl);
+    }
+
+
+    public void restoreMove(int col, boolean own) {
+        player.restoreMove(col, own);
+    }
+}
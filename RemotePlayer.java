@@ -0,0 +1,121 @@
+import java.io.PrintWriter;
+
+/**
+ * // CLASS: RemotePlayer
+ * //
+ * // REMARKS: The Player of a client connected to GameServer. It does not choose
+ * //          moves itself: it tells the client what the opponent played and that
+ * //          it is its turn, and the server session hands the client's answer to
+ * //          the game with play. A column that is full or does not exist is
+ * //          refused before it reaches the game.
+ * //
+ * //-----------------------------------------
+ **/
+public class RemotePlayer implements Player {
+    private final PrintWriter out;  //lines to the client
+    private GameLogic gl;   //the game
+    private int size;   //size of the board
+    private volatile boolean myTurn;    //true while the game waits for the client
+    private volatile Status winner;     //the winner once the game is over, otherwise null
+
+
+    /**
+     * //------------------------------------------------------
+     * // RemotePlayer
+     * //
+     * // PARAMETERS:
+     * //      out - where to write the lines for the client.
+     * //------------------------------------------------------
+     **/
+    public RemotePlayer(PrintWriter out) {
+        this.out = out;
+    }
+
+
+    public void setInfo(int size, GameLogic gl) {
+        this.size = size;
+        this.gl = gl;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // lastMove
+     * //
+     * // PURPOSE: tells the client the move of the opponent, if any, and that it
+     * //          is its turn.
+     * //
+     * // PARAMETERS:
+     * //      lastCol - column where the opponent played, or -1 on the first move.
+     * //------------------------------------------------------
+     **/
+    public void lastMove(int lastCol) {
+        if (lastCol != -1) {
+            out.println("AI " + lastCol);
+        }
+        myTurn = true;
+        out.println("YOUR_TURN");
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // restoreMove
+     * //
+     * // PURPOSE: tells the client a move of a resumed game, with the word it
+     * //          would have been sent or played with.
+     * //
+     * // PARAMETERS:
+     * //      col - the column of the move.
+     * //      own - true if the client made the move.
+     * //------------------------------------------------------
+     **/
+    public void restoreMove(int col, boolean own) {
+        out.println((own ? "MOVE " : "AI ") + col);
+    }
+
+
+    public void gameOver(Status winner) {
+        this.winner = winner;
+        myTurn = false;
+        out.println("OVER " + winner);
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // play
+     * //
+     * // PURPOSE: called by the session with the column the client chose. If it
+     * //          can be played, it goes to the game, which plays it and the
+     * //          answer of the opponent before returning.
+     * //
+     * // PARAMETERS:
+     * //      col - the column the client chose.
+     * //RETURN:
+     * //      return null if the move was played, otherwise why it was refused.
+     * //------------------------------------------------------
+     **/
+    public String play(int col) {
+        if (!myTurn)
+            return "not your turn";
+        if (col < 0 || col >= size || gl.isFull(col))
+            return "column " + col + " is not available";
+        myTurn = false;
+        gl.setAnswer(col);
+        return null;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // getWinner
+     * //
+     * // RETURN:
+     * //      return the winner once the game is over, otherwise null.
+     * //------------------------------------------------------
+     **/
+    public Status getWinner() {
+        return winner;
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * // CLASS: ReplayPlayer
+ * //
+ * // REMARKS: Plays the moves of player ONE from a recorded game, in place of the
+ * //          human. With the seed of the recording, the AI makes the same random
+ * //          choices, so the game is played again move for move unless the engine
+ * //          itself plays differently. At the first move of the opponent that is
+ * //          not the recorded one, the replay stops answering and the game ends
+ * //          there; compare the snapshot of the game with the recording to see
+ * //          where (see GameSnapshot.firstDifference).
+ * //
+ * //-----------------------------------------
+ **/
+public class ReplayPlayer implements Player {
+    private final GameSnapshot recording;   //the game to play again
+    private GameLogic gl;   //the game
+    private int next;   //index of the next recorded move
+    private boolean stopped;    //true once the game left the recording
+
+
+    /**
+     * //------------------------------------------------------
+     * // ReplayPlayer
+     * //
+     * // PARAMETERS:
+     * //      recording - the game to play again.
+     * //------------------------------------------------------
+     **/
+    public ReplayPlayer(GameSnapshot recording) {
+        this.recording = recording;
+    }
+
+
+    public void setInfo(int size, GameLogic gl) {
+        this.gl = gl;
+        if (size != recording.getSize())
+            throw new IllegalStateException("The game has size " + size + ", the recording "
+                    + recording.getSize());
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // lastMove
+     * //
+     * // PURPOSE: compares the move of the opponent with the recording, then
+     * //          answers with the next recorded move.
+     * //
+     * // PARAMETERS:
+     * //      lastCol - column where the opponent played, or -1 on the first move.
+     * //------------------------------------------------------
+     **/
+    public void lastMove(int lastCol) {
+        if (stopped)
+            return;
+        if (lastCol != -1)
+            follow(lastCol);
+        //a recording of an unfinished game stops here, with every move matched
+        if (stopped || next == recording.getMoveCount())
+            return;
+        gl.setAnswer(recording.getMove(next++));
+    }
+
+
+    public void gameOver(Status winner) {
+    }
+
+
+    public void restoreMove(int col, boolean own) {
+        follow(col);
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // follow
+     * //
+     * // PURPOSE: private helper method that moves past a played move if it is
+     * //          the recorded one, and stops the replay otherwise.
+     * //
+     * // PARAMETERS:
+     * //      col - the column played.
+     * //------------------------------------------------------
+     **/
+    private void follow(int col) {
+        if (next < recording.getMoveCount() && recording.getMove(next) == col)
+            next++;
+        else
+            stopped = true;
+    }
+}
@@ -0,0 +1,3 @@
+public interface Search {
+    int bestMove(BitBoard board, Status side);
+}
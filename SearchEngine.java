@@ -0,0 +1,421 @@
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * // CLASS: SearchEngine
+ * //
+ * // REMARKS: A game tree search for the AI player. It uses negamax with
+ * //          alpha-beta pruning on a BitBoard, and deepens one ply at a time
+ * //          (iterative deepening) so that a usable move is always ready when
+ * //          the depth or node limit is reached. The limits let the strength
+ * //          of the AI be traded against the time it takes to move.
+ * //
+ * //-----------------------------------------
+ **/
+public class SearchEngine implements Search {
+    public static final int WIN = 1000000;  //score of a won position, less the plies to reach it
+    public static final int REPORT_ALL = 0;     //publish nodes, time and depth: the search whose move is played
+    public static final int REPORT_NODES = 1;   //publish nodes only: a helper of a parallel search
+    public static final int REPORT_NONE = 2;    //publish nothing: a search of a move not asked for yet
+    private static final int MAX_PLY = MoveOrdering.MAX_PLY;  //more plies than any game can last
+
+    private final int maxDepth;     //deepest iteration to search, in plies
+    private final long maxNodes;    //nodes allowed for one move, 0 for no limit
+    private final TranspositionTable table;     //positions already searched, or null
+    private long nodes;     //nodes searched for the current move
+    private long tableProbes;   //transposition table lookups for the current move
+    private long tableHits;     //lookups that found the position
+    private boolean stopped;    //true when the node limit cut the search short
+    private int reachedDepth;   //deepest iteration completed for the current move
+    private int score;  //score of the best move of the deepest iteration completed
+    private MoveOrdering ordering;  //decides which moves are tried first
+    private final Evaluator evaluator = new Evaluator();    //scores positions where the search stops
+    private final EngineMetrics metrics = EngineMetrics.get();  //counters published over JMX
+    private int[][] moveLists;  //ordered moves of every ply, so none are allocated while searching
+    private AtomicBoolean stopFlag;     //set by another thread to end the search, or null
+    private int reporting = REPORT_ALL;     //what the search publishes to EngineMetrics
+
+
+    /**
+     * //------------------------------------------------------
+     * // SearchEngine
+     * //
+     * // PURPOSE: constructor that sets the limits of the search, without a
+     * //          transposition table.
+     * //
+     * // PARAMETERS:
+     * //      maxDepth - the deepest iteration to search, in plies.
+     * //      maxNodes - the number of nodes allowed for one move, 0 for no limit.
+     * //------------------------------------------------------
+     **/
+    public SearchEngine(int maxDepth, long maxNodes) {
+        this(maxDepth, maxNodes, null);
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // SearchEngine
+     * //
+     * // PURPOSE: constructor that sets the limits of the search and the table
+     * //          used to remember positions already searched.
+     * //
+     * // PARAMETERS:
+     * //      maxDepth - the deepest iteration to search, in plies.
+     * //      maxNodes - the number of nodes allowed for one move, 0 for no limit.
+     * //      table - the transposition table, or null to search without one.
+     * //------------------------------------------------------
+     **/
+    public SearchEngine(int maxDepth, long maxNodes, TranspositionTable table) {
+        this.maxDepth = maxDepth;
+        this.maxNodes = maxNodes;
+        this.table = table;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // bestMove
+     * //
+     * // PURPOSE: searches the position one ply deeper at a time until the depth
+     * //          limit, the node limit or a forced result is reached. The best
+     * //          move of the previous iteration is searched first.
+     * //
+     * // PARAMETERS:
+     * //      board - the position to search. It is the same when this returns.
+     * //      side - the player to move.
+     * //RETURN:
+     * //      return the column to play, or -1 if the board is full.
+     * //------------------------------------------------------
+     **/
+    public int bestMove(BitBoard board, Status side) {
+        int size = board.size();
+        if (ordering == null || moveLists[0].length != size) {
+            ordering = new MoveOrdering(size);
+            moveLists = new int[MAX_PLY][size];
+        }
+        ordering.age();
+
+        nodes = 0;
+        tableProbes = 0;
+        tableHits = 0;
+        stopped = false;
+        reachedDepth = 0;
+        score = 0;
+
+        int legal = board.legalMoves();
+        if (legal == 0)
+            return -1;
+        if (reporting == REPORT_ALL)
+            metrics.searchStarted();
+
+        //on a symmetric board a move and its mirror are worth the same, so only one is searched
+        int rootMoves = board.symmetricMoves();
+        int[] moves = moveLists[0];
+        keep(moves, ordering.order(board, side, 0, -1, moves), rootMoves);
+        int best = moves[0];
+
+        int empty = size * size - board.getMoves();
+        int limit = Math.min(maxDepth, empty);
+        for (int depth = 1; depth <= limit; depth++) {
+            int move = -1;
+            int alpha = -WIN - 1;
+            int beta = WIN + 1;
+
+            int count = keep(moves, ordering.order(board, side, 0, best, moves), rootMoves);
+            for (int i = 0; i < count; i++) {
+                int col = moves[i];
+                int score = -negamax(board, side, col, depth - 1, -beta, -alpha, 1);
+                if (stopped)
+                    break;
+                if (score > alpha) {
+                    alpha = score;
+                    move = col;
+                }
+            }
+
+            if (stopped)
+                break;
+            best = move;
+            score = alpha;
+            reachedDepth = depth;
+            if (alpha >= WIN - depth || alpha <= -WIN + depth)
+                break;  //the result is forced, searching deeper will not change it
+        }
+        if (reporting == REPORT_ALL)
+            metrics.searched(nodes, reachedDepth, tableProbes, tableHits);
+        else if (reporting == REPORT_NODES)
+            metrics.helped(nodes, tableProbes, tableHits);
+        return best;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // negamax
+     * //
+     * // PURPOSE: private helper method that plays a move, scores the resulting
+     * //          position from the view of the opponent and takes the move back.
+     * //
+     * // PARAMETERS:
+     * //      board - the position before the move.
+     * //      side - the player making the move.
+     * //      col - the column to play.
+     * //      depth - the plies left to search after this move.
+     * //      alpha - the score the opponent already has elsewhere.
+     * //      beta - the score above which the opponent avoids this line.
+     * //      ply - the distance from the root after this move.
+     * //RETURN:
+     * //      return the score of the position for the opponent of side.
+     * //------------------------------------------------------
+     **/
+    private int negamax(BitBoard board, Status side, int col, int depth, int alpha, int beta, int ply) {
+        board.play(col, side);
+        int score;
+        if (board.isWinAt(col))
+            score = -(WIN - ply);
+        else
+            score = search(board, opponent(side), depth, alpha, beta, ply);
+        board.undo(col);
+        return score;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // search
+     * //
+     * // PURPOSE: private helper method that scores a position with alpha-beta,
+     * //          from the view of the player to move.
+     * //
+     * // PARAMETERS:
+     * //      board - the position to score.
+     * //      side - the player to move.
+     * //      depth - the plies left to search.
+     * //      alpha - lower bound of the score we care about.
+     * //      beta - upper bound of the score we care about.
+     * //      ply - the distance from the root.
+     * //RETURN:
+     * //      return the score of the position for side.
+     * //------------------------------------------------------
+     **/
+    private int search(BitBoard board, Status side, int depth, int alpha, int beta, int ply) {
+        nodes++;
+        if ((maxNodes > 0 && nodes >= maxNodes)
+                || ((nodes & 1023) == 0 && stopFlag != null && stopFlag.get())) {
+            stopped = true;
+            return 0;
+        }
+
+        int legal = board.legalMoves();
+        if (legal == 0)
+            return 0;   //board is full, a draw
+
+        //the table holds a position and its mirror under one key, with the move of the canonical one
+        long key = Zobrist.withSide(board.getCanonicalHash(), side);
+        int tableMove = -1;
+        if (table != null) {
+            long entry = table.probe(key);
+            tableProbes++;
+            if (entry != 0) {
+                tableHits++;
+                tableMove = board.canonicalColumn(TranspositionTable.moveOf(entry));
+                if (TranspositionTable.depthOf(entry) >= depth) {
+                    int score = fromTable(TranspositionTable.scoreOf(entry), ply);
+                    int bound = TranspositionTable.boundOf(entry);
+                    if (bound == TranspositionTable.EXACT
+                            || (bound == TranspositionTable.LOWER && score >= beta)
+                            || (bound == TranspositionTable.UPPER && score <= alpha))
+                        return score;
+                }
+            }
+        }
+
+        if (depth == 0)
+            return evaluator.evaluate(board, side);
+
+        int alphaStart = alpha;
+        int bestCol = -1;
+        int[] moves = moveLists[ply];
+        int count = ordering.order(board, side, ply, tableMove, moves);
+        for (int i = 0; i < count; i++) {
+            int col = moves[i];
+            int score = -negamax(board, side, col, depth - 1, -beta, -alpha, ply + 1);
+            if (stopped)
+                return 0;
+            if (score > alpha) {
+                alpha = score;
+                bestCol = col;
+                if (alpha >= beta) {
+                    ordering.cutoff(board, side, col, ply, depth);
+                    break;
+                }
+            }
+        }
+
+        if (table != null) {
+            int bound = alpha <= alphaStart ? TranspositionTable.UPPER
+                    : alpha >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+            table.store(key, toTable(alpha, ply), depth, bound, board.canonicalColumn(bestCol));
+        }
+        return alpha;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // keep
+     * //
+     * // PURPOSE: private helper method that drops the moves missing from a mask,
+     * //          keeping the order of the rest.
+     * //
+     * // PARAMETERS:
+     * //      moves - the moves, changed in place.
+     * //      count - the number of moves.
+     * //      allowed - a mask with bit c set for every column c to keep.
+     * //RETURN:
+     * //      return the number of moves kept.
+     * //------------------------------------------------------
+     **/
+    private static int keep(int[] moves, int count, int allowed) {
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if ((allowed & (1 << moves[i])) != 0)
+                moves[kept++] = moves[i];
+        }
+        return kept;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // toTable
+     * //
+     * // PURPOSE: private helper method that makes a win or loss score relative to
+     * //          the position instead of the root before it is stored, since the
+     * //          same position can be reached at different plies.
+     * //
+     * // PARAMETERS:
+     * //      score - the score, counted from the root.
+     * //      ply - the distance of the position from the root.
+     * //RETURN:
+     * //      return the score counted from the position.
+     * //------------------------------------------------------
+     **/
+    private static int toTable(int score, int ply) {
+        if (score > WIN - MAX_PLY)
+            return score + ply;
+        if (score < -WIN + MAX_PLY)
+            return score - ply;
+        return score;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // fromTable
+     * //
+     * // PURPOSE: private helper method that undoes toTable for a stored score.
+     * //
+     * // PARAMETERS:
+     * //      score - the score, counted from the position.
+     * //      ply - the distance of the position from the root.
+     * //RETURN:
+     * //      return the score counted from the root.
+     * //------------------------------------------------------
+     **/
+    private static int fromTable(int score, int ply) {
+        if (score > WIN - MAX_PLY)
+            return score - ply;
+        if (score < -WIN + MAX_PLY)
+            return score + ply;
+        return score;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // opponent
+     * //
+     * // PARAMETERS:
+     * //      side - a player, ONE or TWO.
+     * //RETURN:
+     * //      return the other player.
+     * //------------------------------------------------------
+     **/
+    static Status opponent(Status side) {
+        return side == Status.ONE ? Status.TWO : Status.ONE;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // setStopFlag
+     * //
+     * // PURPOSE: gives the search a flag another thread can set to end it early.
+     * //          The flag is looked at every 1024 nodes. The best move of the last
+     * //          finished iteration is returned when it is set.
+     * //
+     * // PARAMETERS:
+     * //      stopFlag - the flag, or null for none.
+     * //------------------------------------------------------
+     **/
+    public void setStopFlag(AtomicBoolean stopFlag) {
+        this.stopFlag = stopFlag;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // setReporting
+     * //
+     * // PURPOSE: sets what the search publishes to EngineMetrics, so that only
+     * //          the search whose move is played reports its time and depth.
+     * //
+     * // PARAMETERS:
+     * //      reporting - REPORT_ALL, REPORT_NODES or REPORT_NONE.
+     * //------------------------------------------------------
+     **/
+    public void setReporting(int reporting) {
+        this.reporting = reporting;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // getNodes
+     * //
+     * // RETURN:
+     * //      return the number of nodes searched for the last move.
+     * //------------------------------------------------------
+     **/
+    public long getNodes() {
+        return nodes;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // getScore
+     * //
+     * // RETURN:
+     * //      return the score of the move returned by the last bestMove, for the
+     * //      player who moves.
+     * //------------------------------------------------------
+     **/
+    public int getScore() {
+        return score;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // getReachedDepth
+     * //
+     * // RETURN:
+     * //      return the deepest iteration completed for the last move.
+     * //------------------------------------------------------
+     **/
+    public int getReachedDepth() {
+        return reachedDepth;
+    }
+}
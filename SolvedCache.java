@@ -0,0 +1,181 @@
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * // CLASS: SolvedCache
+ * //
+ * // REMARKS: Exact scores found by the Solver, kept in a file so that later runs
+ * //          and other processes reading the same file do not solve a position
+ * //          twice. The file is memory-mapped and read and written in place, so
+ * //          a lookup or a store is one long read or written in memory.
+ * //
+ * //          File layout: a header of MAGIC, the board size and the log2 of the
+ * //          number of slots, then the slots. Every slot is one long holding the
+ * //          position key in the high 56 bits and the score + 128 in the low 8,
+ * //          0 if empty. A key is looked for in PROBES slots in a row; when all
+ * //          are taken by other keys, the first is replaced. A slot is written as
+ * //          one aligned long, so a reader never sees half of an entry.
+ * //
+ * //-----------------------------------------
+ **/
+public class SolvedCache {
+    public static final int MAGIC = 0x43345343;     //"C4SC"
+    public static final String DIRECTORY = "./solved";  //where the cache files are kept
+    public static final int NO_SCORE = Integer.MIN_VALUE;   //returned for a position not in the cache
+    private static final int HEADER_BYTES = 16;     //magic, size and slot bits, padded
+    private static final int SLOT_BITS = 20;    //a million slots, 8 MB per file
+    private static final int PROBES = 4;    //slots looked at for one key
+
+    private static final SolvedCache[] CACHES = new SolvedCache[13];   //caches opened so far, by size
+    private static final boolean[] LOOKED = new boolean[13];    //sizes already opened
+
+    private final MappedByteBuffer buffer;  //the whole file, in memory
+    private final int mask;     //number of slots less one
+
+
+    /**
+     * //------------------------------------------------------
+     * // SolvedCache
+     * //
+     * // PURPOSE: private constructor that maps an open file, writing the header
+     * //          of a new one.
+     * //------------------------------------------------------
+     **/
+    private SolvedCache(FileChannel channel, int size) throws IOException {
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (8L << SLOT_BITS));
+        if (buffer.getInt(0) == 0) {
+            buffer.putInt(4, size);
+            buffer.putInt(8, SLOT_BITS);
+            buffer.putInt(0, MAGIC);
+        } else if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != size || buffer.getInt(8) != SLOT_BITS) {
+            throw new IOException("not a solved cache of size " + size);
+        }
+        mask = (1 << SLOT_BITS) - 1;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // forSize
+     * //
+     * // PURPOSE: opens the cache for a board size in DIRECTORY, creating it if
+     * //          needed. A cache is mapped once and shared by all callers.
+     * //
+     * // PARAMETERS:
+     * //      size - the size of the board
+     * //RETURN:
+     * //      return the cache, or null if it cannot be opened.
+     * //------------------------------------------------------
+     **/
+    public static synchronized SolvedCache forSize(int size) {
+        if (!LOOKED[size]) {
+            LOOKED[size] = true;
+            Path path = Paths.get(DIRECTORY).resolve("solved" + size + ".bin");
+            try {
+                Files.createDirectories(path.getParent());
+                CACHES[size] = open(path, size);
+            } catch (IOException e) {
+                System.out.println("Cannot open solved cache " + path + ": " + e.getMessage());
+            }
+        }
+        return CACHES[size];
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // open
+     * //
+     * // PURPOSE: memory-maps a cache file, creating it if it does not exist.
+     * //
+     * // PARAMETERS:
+     * //      path - the cache file.
+     * //      size - the size of the board of its positions.
+     * //RETURN:
+     * //      return the cache.
+     * //------------------------------------------------------
+     **/
+    public static SolvedCache open(Path path, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return new SolvedCache(channel, size);
+        }
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // get
+     * //
+     * // PARAMETERS:
+     * //      key - the key of the position, less than 2^56.
+     * //RETURN:
+     * //      return the score of the position, or NO_SCORE if it is not cached.
+     * //------------------------------------------------------
+     **/
+    public int get(long key) {
+        int index = index(key);
+        for (int i = 0; i < PROBES; i++) {
+            long slot = buffer.getLong(HEADER_BYTES + 8 * ((index + i) & mask));
+            if (slot == 0)
+                return NO_SCORE;
+            if (slot >>> 8 == key)
+                return (int) (slot & 0xFF) - 128;
+        }
+        return NO_SCORE;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // put
+     * //
+     * // PURPOSE: stores the score of a position.
+     * //
+     * // PARAMETERS:
+     * //      key - the key of the position, less than 2^56.
+     * //      score - the exact score of the position.
+     * //------------------------------------------------------
+     **/
+    public void put(long key, int score) {
+        int index = index(key);
+        int target = index;
+        for (int i = 0; i < PROBES; i++) {
+            long slot = buffer.getLong(HEADER_BYTES + 8 * ((index + i) & mask));
+            if (slot == 0 || slot >>> 8 == key) {
+                target = index + i;
+                break;
+            }
+        }
+        buffer.putLong(HEADER_BYTES + 8 * (target & mask), key << 8 | (score + 128));
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // force
+     * //
+     * // PURPOSE: writes the cached scores to the disk.
+     * //------------------------------------------------------
+     **/
+    public void force() {
+        buffer.force();
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // index
+     * //
+     * // PURPOSE: private helper method that spreads the keys over the slots.
+     * //------------------------------------------------------
+     **/
+    private int index(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - SLOT_BITS));
+    }
+}
@@ -0,0 +1,594 @@
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * // CLASS: Solver
+ * //
+ * // REMARKS: Finds the exact result of a position with perfect play from both
+ * //          sides: who wins, or a draw, and how soon. The board is kept in two
+ * //          longs, the pieces of the player to move and the cells taken, laid
+ * //          out like a BitBoard (columns of size + 1 bits, bottom to top), so it
+ * //          only fits boards up to 7x7. Larger boards are too big to solve but at
+ * //          the very end anyway.
+ * //
+ * //          The search is negamax with alpha-beta over moves that do not lose at
+ * //          once, tried from the center outwards and by how many new threats they
+ * //          make, with a table of the upper and lower bounds found. The exact
+ * //          score is narrowed down with null-window searches (alpha = beta - 1),
+ * //          which prune the most.
+ * //
+ * //          A score is 0 for a draw. When the player to move wins with the move
+ * //          that puts n pieces on the board, the score is (size^2 + 2 - n) / 2,
+ * //          so the sooner the win, the higher the score; a loss is the same
+ * //          with the sign turned. Exact scores of solved positions are kept in
+ * //          a SolvedCache, so they are never solved twice.
+ * //
+ * //          A position and its mirror image, flipped left to right, have the
+ * //          same score, so the table and the cache key both by the smaller of
+ * //          the two keys, and on a symmetric board only the left half of the
+ * //          moves is solved.
+ * //
+ * //          Usage: java Solver [size] solves the empty board, 6 by default.
+ * //
+ * //-----------------------------------------
+ **/
+public class Solver {
+    public static final int MAX_SIZE = 7;   //largest board that fits in one long
+
+    private final int size;     //size of the board
+    private final int height;   //bits per column, size + 1 for the sentinel bit
+    private final int cells;    //cells on the board
+    private final long bottomMask;  //bottom cell of every column
+    private final long boardMask;   //every cell of the board
+    private final long columnBits;  //every bit of column 0, sentinel included
+    private final int[] columnOrder;    //columns from the center outwards
+    private final long maxNodes;    //nodes allowed for one solve, 0 for no limit
+    private final SolvedCache cache;    //exact scores kept on disk, or null
+    private final int minScore;     //less than any score
+    private final int range;    //number of values from minScore to more than any score
+    private final long[] tableKeys;     //key of the position in every slot of the table
+    private final byte[] tableValues;   //bound in every slot, see negamax; 0 if empty
+    private final int tableShift;   //64 less the log2 of the number of slots
+    private final long[][] moveLists;   //moves of every ply, so none are allocated while solving
+    private final int[][] moveScores;   //ordering score of every move in moveLists
+
+    private long current;   //pieces of the player to move
+    private long mask;  //cells taken
+    private int moves;  //pieces on the board
+    private long nodes;     //nodes searched for the current solve
+    private boolean stopped;    //true when the node limit or the stop flag cut the solve short
+    private AtomicBoolean stopFlag;     //set by another thread to end the solve, or null
+    private final EngineMetrics metrics = EngineMetrics.get();  //counters published over JMX
+
+
+    /**
+     * //------------------------------------------------------
+     * // Solver
+     * //
+     * // PARAMETERS:
+     * //      size - the size of the board, at most MAX_SIZE.
+     * //      maxNodes - the number of nodes allowed for one solve, 0 for no limit.
+     * //      megabytes - the memory of the table of bounds, at least 1.
+     * //      cache - where exact scores are kept, or null for none.
+     * //------------------------------------------------------
+     **/
+    public Solver(int size, long maxNodes, int megabytes, SolvedCache cache) {
+        if (!supports(size))
+            throw new IllegalArgumentException("Cannot solve boards of size " + size);
+        this.size = size;
+        this.maxNodes = maxNodes;
+        this.cache = cache;
+        height = size + 1;
+        cells = size * size;
+        long bottom = 0;
+        for (int col = 0; col < size; col++) {
+            bottom |= 1L << (col * height);
+        }
+        bottomMask = bottom;
+        boardMask = bottom * ((1L << size) - 1);
+        columnBits = (1L << height) - 1;
+        columnOrder = new int[size];
+        for (int i = 0; i < size; i++) {
+            columnOrder[i] = size / 2 + (1 - 2 * (i % 2)) * (i + 1) / 2;
+        }
+        minScore = -(cells + 1) / 2 - 1;
+        range = (cells + 1) / 2 + 2 - minScore;
+        int bits = 63 - Long.numberOfLeadingZeros(((long) megabytes << 20) / 9);
+        tableKeys = new long[1 << bits];
+        tableValues = new byte[1 << bits];
+        tableShift = 64 - bits;
+        moveLists = new long[cells + 1][size];
+        moveScores = new int[cells + 1][size];
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // supports
+     * //
+     * // RETURN:
+     * //      return true if boards of the size can be solved.
+     * //------------------------------------------------------
+     **/
+    public static boolean supports(int size) {
+        return size * (size + 1) <= 64;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // solve
+     * //
+     * // PURPOSE: finds the exact score of a position that is not over yet.
+     * //
+     * // PARAMETERS:
+     * //      board - the position.
+     * //      side - the player to move.
+     * //RETURN:
+     * //      return the score for the player to move, or SolvedCache.NO_SCORE
+     * //      if the node limit was reached or the stop flag set first.
+     * //------------------------------------------------------
+     **/
+    public int solve(BitBoard board, Status side) {
+        load(board, side);
+        nodes = 0;
+        stopped = false;
+        return solve();
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // bestMove
+     * //
+     * // PURPOSE: solves every move of a position to find the best one. A move
+     * //          that wins at once is played without solving anything.
+     * //
+     * // PARAMETERS:
+     * //      board - the position. It is the same when this returns.
+     * //      side - the player to move.
+     * //RETURN:
+     * //      return the column to play, or -1 if the board is full, or the node
+     * //      limit was reached or the stop flag set first.
+     * //------------------------------------------------------
+     **/
+    public int bestMove(BitBoard board, Status side) {
+        metrics.searchStarted();
+        int best = solveMoves(board, side);
+        metrics.solved(nodes);
+        return best;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // solveMoves
+     * //
+     * // PURPOSE: private helper method that does the work of bestMove.
+     * //
+     * // PARAMETERS:
+     * //      board - the position.
+     * //      side - the player to move.
+     * //RETURN:
+     * //      return the column to play, or -1 if none was found.
+     * //------------------------------------------------------
+     **/
+    private int solveMoves(BitBoard board, Status side) {
+        load(board, side);
+        nodes = 0;
+        stopped = false;
+        long rootCurrent = current;
+        long rootMask = mask;
+        boolean symmetric = mirror(current) == current && mirror(mask) == mask;
+
+        int best = -1;
+        int bestScore = Integer.MIN_VALUE;
+        for (int col : columnOrder) {
+            long move = (mask + (bottomMask & columnMask(col))) & columnMask(col);
+            if ((move & boardMask) == 0 || (symmetric && col > size - 1 - col))
+                continue;
+            if ((winningPosition(current, mask) & move) != 0)
+                return col;
+            play(move);
+            int score;
+            if (moves == cells)
+                score = 0;
+            else if ((winningPosition(current, mask) & possible()) != 0)
+                score = -(cells + 1 - moves) / 2;  //the opponent wins at once
+            else
+                score = -solve();
+            current = rootCurrent;
+            mask = rootMask;
+            moves--;
+            if (stopped)
+                return -1;
+            if (score > bestScore) {
+                bestScore = score;
+                best = col;
+            }
+        }
+        return best;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // pliesToEnd
+     * //
+     * // PURPOSE: turns a score into the number of moves until the game ends
+     * //          with perfect play.
+     * //
+     * // PARAMETERS:
+     * //      score - the score of a position.
+     * //      moves - the number of pieces on the board of that position.
+     * //RETURN:
+     * //      return the moves until the winning piece is played, or until the
+     * //      board is full for a draw.
+     * //------------------------------------------------------
+     **/
+    public int pliesToEnd(int score, int moves) {
+        if (score == 0)
+            return cells - moves;
+        //the winner plays the pieces that make moves + 1, moves + 3, ... for a win,
+        //moves + 2, moves + 4, ... for a loss; only one of the two n fits
+        int n = cells + 2 - 2 * Math.abs(score);
+        int parity = score > 0 ? moves + 1 : moves;
+        if ((n - parity) % 2 != 0)
+            n--;
+        return n - moves;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // getNodes
+     * //
+     * // RETURN:
+     * //      return the number of nodes searched by the last solve.
+     * //------------------------------------------------------
+     **/
+    public long getNodes() {
+        return nodes;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // setStopFlag
+     * //
+     * // PURPOSE: gives the solver a flag another thread can set to end it early,
+     * //          as if the node limit was reached. The flag is looked at every
+     * //          1024 nodes.
+     * //
+     * // PARAMETERS:
+     * //      stopFlag - the flag, or null for none.
+     * //------------------------------------------------------
+     **/
+    public void setStopFlag(AtomicBoolean stopFlag) {
+        this.stopFlag = stopFlag;
+    }
+
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        Solver solver = new Solver(size, 0, 1024, SolvedCache.forSize(size));
+        long start = System.nanoTime();
+        int score = solver.solve(new BitBoard(size), Status.ONE);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        String result = score > 0 ? "first player wins" : score < 0 ? "second player wins" : "draw";
+        System.out.printf("%dx%d: %s, score %d, game ends after %d moves (%d nodes, %.1f s)%n",
+                size, size, result, score, solver.pliesToEnd(score, 0), solver.getNodes(), seconds);
+        if (solver.cache != null)
+            solver.cache.force();
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // load
+     * //
+     * // PURPOSE: private helper method that copies a BitBoard into the two longs.
+     * //------------------------------------------------------
+     **/
+    private void load(BitBoard board, Status side) {
+        if (board.size() != size)
+            throw new IllegalArgumentException("The board has size " + board.size() + ", not " + size);
+        long one = board.pieces(Status.ONE)[0];
+        long two = board.pieces(Status.TWO)[0];
+        current = side == Status.ONE ? one : two;
+        mask = one | two;
+        moves = board.getMoves();
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // solve
+     * //
+     * // PURPOSE: private helper method that narrows the score of the loaded
+     * //          position down with null-window searches.
+     * //------------------------------------------------------
+     **/
+    private int solve() {
+        if ((winningPosition(current, mask) & possible()) != 0)
+            return (cells + 1 - moves) / 2;
+        long key = canonicalKey();
+        if (cache != null) {
+            int cached = cache.get(key);
+            if (cached != SolvedCache.NO_SCORE)
+                return cached;
+        }
+
+        int min = -(cells - moves) / 2;
+        int max = (cells + 1 - moves) / 2;
+        while (min < max) {
+            int med = min + (max - min) / 2;
+            if (med <= 0 && min / 2 < med)
+                med = min / 2;
+            else if (med >= 0 && max / 2 > med)
+                med = max / 2;
+            int r = negamax(med, med + 1);
+            if (stopped)
+                return SolvedCache.NO_SCORE;
+            if (r <= med)
+                max = r;
+            else
+                min = r;
+        }
+        if (cache != null)
+            cache.put(key, min);
+        return min;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // negamax
+     * //
+     * // PURPOSE: private helper method that scores the loaded position, where
+     * //          the player to move cannot win at once, within alpha and beta.
+     * //
+     * // RETURN:
+     * //      return the exact score if it is between alpha and beta, otherwise a
+     * //      bound on the side of the window it falls.
+     * //------------------------------------------------------
+     **/
+    private int negamax(int alpha, int beta) {
+        nodes++;
+        if ((maxNodes > 0 && nodes > maxNodes)
+                || ((nodes & 1023) == 0 && stopFlag != null && stopFlag.get())) {
+            stopped = true;
+            return 0;
+        }
+
+        long next = nonLosingMoves();
+        if (next == 0)
+            return -(cells - moves) / 2;    //every move lets the opponent win
+        if (moves >= cells - 2)
+            return 0;   //the opponent cannot win with the last piece
+
+        int min = -(cells - 2 - moves) / 2;
+        if (alpha < min) {
+            alpha = min;
+            if (alpha >= beta)
+                return alpha;
+        }
+        //a table value up to range is an upper bound, above it a lower bound
+        long key = canonicalKey();
+        int slot = slot(key);
+        int stored = tableKeys[slot] == key ? tableValues[slot] : 0;
+        if (stored > range) {
+            min = stored - range + minScore;
+            if (alpha < min) {
+                alpha = min;
+                if (alpha >= beta)
+                    return alpha;
+            }
+        }
+        int max = (cells - 1 - moves) / 2;
+        if (stored != 0 && stored <= range)
+            max = stored + minScore;
+        if (beta > max) {
+            beta = max;
+            if (alpha >= beta)
+                return beta;
+        }
+
+        long[] list = moveLists[moves];
+        int[] scores = moveScores[moves];
+        int count = 0;
+        for (int i = size - 1; i >= 0; i--) {
+            long move = next & columnMask(columnOrder[i]);
+            if (move != 0) {
+                //insertion sort, best first; equal scores keep the center first
+                int score = Long.bitCount(winningPosition(current | move, mask));
+                int j = count++;
+                while (j > 0 && scores[j - 1] < score) {
+                    list[j] = list[j - 1];
+                    scores[j] = scores[j - 1];
+                    j--;
+                }
+                list[j] = move;
+                scores[j] = score;
+            }
+        }
+
+        long saveCurrent = current;
+        long saveMask = mask;
+        for (int i = 0; i < count; i++) {
+            play(list[i]);
+            int score = -negamax(-beta, -alpha);
+            current = saveCurrent;
+            mask = saveMask;
+            moves--;
+            if (stopped)
+                return 0;
+            if (score >= beta) {
+                store(slot, key, score - minScore + range);
+                return score;
+            }
+            if (score > alpha)
+                alpha = score;
+        }
+
+        store(slot, key, alpha - minScore);
+        return alpha;
+    }
+
+
+    private void store(int slot, long key, int value) {
+        tableKeys[slot] = key;
+        tableValues[slot] = (byte) value;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // play
+     * //
+     * // PURPOSE: private helper method that plays a move for the player to move,
+     * //          who then becomes the opponent.
+     * //
+     * // PARAMETERS:
+     * //      move - the bit of the cell played.
+     * //------------------------------------------------------
+     **/
+    private void play(long move) {
+        current ^= mask;
+        mask |= move;
+        moves++;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // nonLosingMoves
+     * //
+     * // PURPOSE: private helper method that finds the moves of the player to
+     * //          move that do not let the opponent win next. A threat of the
+     * //          opponent must be blocked, and the cell under one must not be
+     * //          played.
+     * //
+     * // RETURN:
+     * //      return the bits of those moves.
+     * //------------------------------------------------------
+     **/
+    private long nonLosingMoves() {
+        long possible = possible();
+        long threats = winningPosition(current ^ mask, mask);
+        long forced = possible & threats;
+        if (forced != 0) {
+            if ((forced & (forced - 1)) != 0)
+                return 0;   //two threats cannot both be blocked
+            possible = forced;
+        }
+        return possible & ~(threats >>> 1);
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // possible
+     * //
+     * // RETURN:
+     * //      return the bits of the cells that can be played now.
+     * //------------------------------------------------------
+     **/
+    private long possible() {
+        return (mask + bottomMask) & boardMask;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // winningPosition
+     * //
+     * // PURPOSE: private helper method that finds the empty cells that would
+     * //          complete four in a row for a player, playable or not.
+     * //
+     * // PARAMETERS:
+     * //      position - the pieces of the player.
+     * //      mask - the cells taken.
+     * //RETURN:
+     * //      return the bits of those cells.
+     * //------------------------------------------------------
+     **/
+    private long winningPosition(long position, long mask) {
+        //vertical: three below
+        long r = (position << 1) & (position << 2) & (position << 3);
+        r |= line(position, height);
+        r |= line(position, height - 1);
+        r |= line(position, height + 1);
+        return r & (boardMask ^ mask);
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // line
+     * //
+     * // PURPOSE: private helper method that finds the cells completing four in a
+     * //          row along one direction, with the gap anywhere in the four.
+     * //
+     * // PARAMETERS:
+     * //      position - the pieces of the player.
+     * //      shift - the distance in bits between neighbours in the direction.
+     * //------------------------------------------------------
+     **/
+    private static long line(long position, int shift) {
+        long p = (position << shift) & (position << 2 * shift);
+        long r = p & (position << 3 * shift);
+        r |= p & (position >>> shift);
+        p = (position >>> shift) & (position >>> 2 * shift);
+        r |= p & (position << shift);
+        r |= p & (position >>> 3 * shift);
+        return r;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // canonicalKey
+     * //
+     * // PURPOSE: private helper method that keys the loaded position. The key
+     * //          current + mask tells every position apart, since the pieces of a
+     * //          column plus its taken cells carry into the bit above them, and it
+     * //          stays within the column, so the key of the mirror image is the key
+     * //          with its columns in reverse order.
+     * //
+     * // RETURN:
+     * //      return the smaller of the keys of the position and of its mirror.
+     * //------------------------------------------------------
+     **/
+    private long canonicalKey() {
+        long key = current + mask;
+        return Math.min(key, mirror(key));
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // mirror
+     * //
+     * // PURPOSE: private helper method that flips bits laid out in columns left
+     * //          to right.
+     * //------------------------------------------------------
+     **/
+    private long mirror(long bits) {
+        long flipped = 0;
+        for (int col = 0, shift = (size - 1) * height; col < size; col++, shift -= 2 * height) {
+            long column = bits & (columnBits << (col * height));
+            flipped |= shift >= 0 ? column << shift : column >>> -shift;
+        }
+        return flipped;
+    }
+
+
+    private long columnMask(int col) {
+        return ((1L << size) - 1) << (col * height);
+    }
+
+
+    private int slot(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> tableShift);
+    }
+}
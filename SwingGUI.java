@@ -22,13 +22,20 @@ public class SwingGUI implements UI {
     private ImageIcon icon_two;
     private Human human;
     private Status[][] board;
+    private ColumnHeights heights;
+    private JLabel[][] cells;  // one label per cell, made once; a move only changes its icon
+    private boolean myTurn;  // true while the human may drop; the AI thinks otherwise
+    private javax.swing.Timer progress;  // shows in the title how long the AI has been thinking
+    private long thinkStart;  // when the AI started thinking, from System.nanoTime
 
     class DropListener implements ActionListener {
 
         public void actionPerformed(ActionEvent e) {
             int ind;
             Object o = e.getSource();
-            if (o instanceof JButton) {
+            if (!myTurn) {
+                return;  // the AI is still thinking
+            } else if (o instanceof JButton) {
                 JButton button = (JButton) o;
                 ind = dropButtons.indexOf(button);
 
@@ -39,9 +46,9 @@ public class SwingGUI implements UI {
                     JOptionPane.showMessageDialog(frame,l,"Try again.",JOptionPane.WARNING_MESSAGE);
                     closeColumn(ind);
                 } else {
-                    int posn = drop(ind);
-                    board[posn][ind] = Status.ONE; // this is the human's move, so it's ONE.
-                    drawBoard();
+                    int posn = heights.push(ind);
+                    drawCell(posn, ind, Status.ONE); // this is the human's move, so it's ONE.
+                    startThinking();
                     human.setAnswer(ind);
                 }
             } else {
@@ -52,39 +59,38 @@ public class SwingGUI implements UI {
     }
 
     private boolean verifyCol(int col) {
-        return (col >= 0 && col < board[0].length && board[0][col] == Status.NEITHER);
+        return (col >= 0 && col < board[0].length && (human.legalMoves() & (1 << col)) != 0);
     }
 
-    private void drawBoard() {
-        panel.removeAll();
-        this.drawTops();
-
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                ImageIcon icon = null;
-                Status s = board[i][j];
-                //System.out.println(s);
-                switch (s) {
-                    case ONE:
-                        icon = icon_one;
-                        break;
-                    case TWO:
-                        icon = icon_two;
-                        break;
-                    case NEITHER:
-                        icon = icon_empty;
-                        break;
-                }
-                JLabel label = new JLabel(icon);
-                panel.add(label);
-            }
-
+    // Sets one cell and swaps the icon of its label. The label repaints only
+    // itself; the grid is never laid out again after reset.
+    private void drawCell(int row, int col, Status s) {
+        board[row][col] = s;
+        ImageIcon icon = null;
+        switch (s) {
+            case ONE:
+                icon = icon_one;
+                break;
+            case TWO:
+                icon = icon_two;
+                break;
+            case NEITHER:
+                icon = icon_empty;
+                break;
         }
-        panel.revalidate();
-
-        panel.repaint();
+        cells[row][col].setIcon(icon);
+    }
 
+    // The AI is thinking until lastMove; the title counts the seconds.
+    private void startThinking() {
+        myTurn = false;
+        thinkStart = System.nanoTime();
+        progress.restart();
+    }
 
+    private void stopThinking(String title) {
+        progress.stop();
+        frame.setTitle(title);
     }
 
     private void drawTops() {
@@ -97,10 +103,12 @@ public class SwingGUI implements UI {
 
         panel.removeAll();
         drawTops();
-        for (int i = 0; i < size *(size); i++) {
-            JLabel label = new JLabel(icon_empty);
-            panel.add(label);
-
+        cells = new JLabel[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                cells[i][j] = new JLabel(icon_empty);
+                panel.add(cells[i][j]);
+            }
         }
         for (JButton j : dropButtons) {
             j.setEnabled(true);
@@ -114,25 +122,28 @@ public class SwingGUI implements UI {
     @Override
     public void lastMove(int lastCol) {
         if (lastCol != -1) {
-            int p = drop(lastCol);
-            board[p][lastCol] = Status.TWO; // this is the AI's move, so it's TWO.
-
+            int p = heights.push(lastCol);
+            drawCell(p, lastCol, Status.TWO); // this is the AI's move, so it's TWO.
         }
-        drawBoard();
-    }
-
-    private int drop(  int col) {
-    int posn = 0;
-        while (posn < board[col].length && board[posn][col] == Status.NEITHER) {
-            posn ++;
+        stopThinking("Your turn");
+        myTurn = true;
+        // the game knows which columns are full; close their buttons
+        int legal = human.legalMoves();
+        for (int i = 0; i < size; i++) {
+            dropButtons.get(i).setEnabled((legal & (1 << i)) != 0);
         }
-        return posn-1;
     }
 
+    @Override
+    public void restoreMove(int col, boolean own) {
+        int p = heights.push(col);
+        drawCell(p, col, own ? Status.ONE : Status.TWO);
+    }
 
     @Override
     public void gameOver(Status PlayerNumber) {
-        drawBoard();
+        myTurn = false;
+        stopThinking("Game over");
         String out = "";
         if (PlayerNumber == Status.NEITHER) {
             out = "It's a draw!";
@@ -160,6 +171,14 @@ public class SwingGUI implements UI {
 
         frame = new JFrame();
         frame.setSize(frameWidth, frameHeight);
+        frame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                human.quit();  // stop the AI before the program exits
+            }
+        });
+        progress = new javax.swing.Timer(100, e -> frame.setTitle(String.format("AI is thinking... %.1f s",
+                (System.nanoTime() - thinkStart) / 1e9)));
 
         panel = new JPanel();
         frame.add(panel);
@@ -195,6 +214,8 @@ public class SwingGUI implements UI {
         for (Status[] s : board) {
             Arrays.fill(s, Status.NEITHER);
         }
+        heights = new ColumnHeights(size);
+        startThinking();  // until the first lastMove, whoever moves first
 
     }
 
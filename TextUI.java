@@ -12,6 +12,7 @@ import java.util.Scanner;
 public class TextUI implements UI {
 
     private Status[][] board; // internal board storage.
+    private ColumnHeights heights; // number of pieces in every column.
     private Scanner kbd; // Scanner for reading from the user.
     private Human human; // pointer to the Human object using this UI.
 
@@ -61,7 +62,7 @@ public class TextUI implements UI {
      * @return - is the column valid?
      */
     private boolean verifyCol(int col) {
-        return (col >= 0 && col < board[0].length && board[0][col] == Status.NEITHER);
+        return (col >= 0 && col < board[0].length && (human.legalMoves() & (1 << col)) != 0);
     }
 
     /**
@@ -72,7 +73,7 @@ public class TextUI implements UI {
     public void lastMove(int lastCol) {
 
         if (lastCol != -1) {
-            int lastPosn = drop(lastCol);
+            int lastPosn = heights.push(lastCol);
             board[lastPosn][lastCol] = Status.TWO; // this is the AI's move, so it's TWO.
         }
 
@@ -91,13 +92,25 @@ public class TextUI implements UI {
             num = kbd.nextInt();
 
         }
-        int posn = drop(num);
+        int posn = heights.push(num);
         board[posn][num] =  Status.ONE; // this is the human's move, so it's ONE.
         human.setAnswer(num); // tell the human class where the human person chose.
 
 
     }
 
+    /**
+     * restoreMove - called when a saved game is resumed, once for every
+     * move already played.
+     * @param col - column of the move.
+     * @param own - true if the human made the move.
+     */
+    @Override
+    public void restoreMove(int col, boolean own) {
+        int posn = heights.push(col);
+        board[posn][col] = own ? Status.ONE : Status.TWO;
+    }
+
     /**
      * gameOver - called when the game is over. See assignment
      * for more details
@@ -128,22 +141,9 @@ public class TextUI implements UI {
         for (Status[] s : board) {
             Arrays.fill(s, Status.NEITHER);
         }
+        heights = new ColumnHeights(size);
 
     }
 
-    /**
-     * drop - a private helper method that finds the position of a marker
-     * when it is dropped in a column.
-     * @param col the column where the piece is dropped
-     * @return the row where the piece lands
-     */
-    private int drop(  int col) {
-        int posn = 0;
-        while (posn < board.length && board[posn][col] == Status.NEITHER) {
-            posn ++;
-        }
-        return posn-1;
-    }
-
 
 }
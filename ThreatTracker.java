@@ -0,0 +1,148 @@
+/**
+ * // CLASS: ThreatTracker
+ * //
+ * // REMARKS: Follows, piece by piece, which empty cells would give a player four
+ * //          in a row. For every window of four cells (see WinWindows) it keeps how
+ * //          many pieces each player has in it. A window holding three pieces of one
+ * //          player and none of the other makes its empty cell a threat of that
+ * //          player, whatever the shape: in a line, with a gap, left or right. A
+ * //          threat can be played right away when it is the cell a piece dropped in
+ * //          its column would land in, and those columns are kept in a mask per
+ * //          player, so the AI never has to scan the board to find them.
+ * //
+ * //-----------------------------------------
+ **/
+public class ThreatTracker {
+    private final int size;     //size of the board
+    private final int height;   //cells per column, as in BitBoard
+    private final WinWindows windows;   //the windows of this size
+    private final byte[] countOne;  //pieces of player ONE in every window
+    private final byte[] countTwo;  //pieces of player TWO in every window
+    private final byte[] owner;     //0 for an empty cell, 1 for ONE, 2 for TWO
+    private final int[] threatsOne;     //windows that cell would complete for ONE
+    private final int[] threatsTwo;     //windows that cell would complete for TWO
+    private int winColumnsOne;  //columns where ONE can win with the next piece
+    private int winColumnsTwo;  //columns where TWO can win with the next piece
+
+
+    /**
+     * //------------------------------------------------------
+     * // ThreatTracker
+     * //
+     * // PURPOSE: constructor for an empty board.
+     * //
+     * // PARAMETERS:
+     * //      size - the size of the board
+     * //------------------------------------------------------
+     **/
+    public ThreatTracker(int size) {
+        this.size = size;
+        height = size + 1;
+        windows = WinWindows.forSize(size);
+        countOne = new byte[windows.count];
+        countTwo = new byte[windows.count];
+        owner = new byte[size * height];
+        threatsOne = new int[size * height];
+        threatsTwo = new int[size * height];
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // place
+     * //
+     * // PURPOSE: called right after a piece is played on the board. Updates the
+     * //          windows through the new piece and the columns whose threats can
+     * //          have changed: the column played, and the columns of any cell that
+     * //          just became a threat.
+     * //
+     * // PARAMETERS:
+     * //      board - the board, with the piece already played.
+     * //      col - the column of the piece.
+     * //      status - the player of the piece, ONE or TWO.
+     * //------------------------------------------------------
+     **/
+    public void place(BitBoard board, int col, Status status) {
+        int cell = col * height + (size - 1 - board.drop(col)) - 1;
+        owner[cell] = (byte) (status == Status.ONE ? 1 : 2);
+        byte[] mine = status == Status.ONE ? countOne : countTwo;
+        byte[] theirs = status == Status.ONE ? countTwo : countOne;
+        int[] threats = status == Status.ONE ? threatsOne : threatsTwo;
+
+        int end = windows.firstWindow[cell + 1];
+        for (int i = windows.firstWindow[cell]; i < end; i++) {
+            int w = windows.cellWindows[i];
+            if (++mine[w] == 3 && theirs[w] == 0) {
+                int empty = emptyCell(w);
+                threats[empty]++;
+                update(board, empty / height);
+            }
+        }
+        update(board, col);
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // winningColumns
+     * //
+     * // PARAMETERS:
+     * //      status - the player, ONE or TWO.
+     * //RETURN:
+     * //      return a mask with bit c set for every column c where a piece of the
+     * //      player would make four in a row right now.
+     * //------------------------------------------------------
+     **/
+    public int winningColumns(Status status) {
+        return status == Status.ONE ? winColumnsOne : winColumnsTwo;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // emptyCell
+     * //
+     * // PURPOSE: private helper method that finds the one empty cell of a window
+     * //          holding three pieces.
+     * //
+     * // PARAMETERS:
+     * //      w - the window.
+     * //RETURN:
+     * //      return the empty cell.
+     * //------------------------------------------------------
+     **/
+    private int emptyCell(int w) {
+        int[] cells = windows.cells;
+        for (int k = 4 * w; k < 4 * w + 3; k++) {
+            if (owner[cells[k]] == 0)
+                return cells[k];
+        }
+        return cells[4 * w + 3];
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // update
+     * //
+     * // PURPOSE: private helper method that sets the bits of a column in the win
+     * //          masks from the threats on the cell a piece would land in.
+     * //
+     * // PARAMETERS:
+     * //      board - the board.
+     * //      col - the column to update.
+     * //------------------------------------------------------
+     **/
+    private void update(BitBoard board, int col) {
+        int bit = 1 << col;
+        winColumnsOne &= ~bit;
+        winColumnsTwo &= ~bit;
+        if (board.isFull(col))
+            return;
+        int landing = col * height + (size - 1 - board.drop(col));
+        if (threatsOne[landing] > 0)
+            winColumnsOne |= bit;
+        if (threatsTwo[landing] > 0)
+            winColumnsTwo |= bit;
+    }
+}
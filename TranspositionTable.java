@@ -0,0 +1,177 @@
+import java.util.Arrays;
+
+/**
+ * // CLASS: TranspositionTable
+ * //
+ * // REMARKS: A fixed-size cache of searched positions, keyed by Zobrist hash.
+ * //          Entries live in two primitive arrays (keys and packed data), so the
+ * //          memory used is set once when the table is made and never grows.
+ * //          Every hash maps to a bucket of two slots: the first keeps the entry
+ * //          searched to the greatest depth, the second always takes the newest
+ * //          entry that did not go into the first.
+ * //
+ * //          The packed data holds the score, the depth it was searched to, the
+ * //          kind of bound the score is and the best move found. SearchEngine
+ * //          keys positions by their canonical hash, so a position and its mirror
+ * //          image share one entry and the move is that of the canonical board.
+ * //
+ * //          Several search threads may share one table without locks. A slot keeps
+ * //          the key XOR the data, so a slot half written by one thread while read
+ * //          by another does not match its key and is treated as missing.
+ * //
+ * //-----------------------------------------
+ **/
+public class TranspositionTable {
+    public static final int EXACT = 1;  //the score is exact
+    public static final int LOWER = 2;  //the real score is at least the score
+    public static final int UPPER = 3;  //the real score is at most the score
+
+    private static final int BYTES_PER_ENTRY = 16;  //one long key and one long data
+
+    private final long[] keys;  //hash of the position XOR the data in every slot
+    private final long[] data;  //packed entry in every slot, 0 if empty
+    private final int bucketMask;   //number of buckets less one
+
+
+    /**
+     * //------------------------------------------------------
+     * // TranspositionTable
+     * //
+     * // PURPOSE: constructor that makes a table using at most the given memory.
+     * //          The number of buckets is rounded down to a power of two.
+     * //
+     * // PARAMETERS:
+     * //      megabytes - the memory the table may use, at least 1.
+     * //------------------------------------------------------
+     **/
+    public TranspositionTable(int megabytes) {
+        long entries = Math.max(1, (long) megabytes) * 1024 * 1024 / BYTES_PER_ENTRY;
+        int buckets = Integer.highestOneBit((int) Math.min(entries / 2, 1 << 29));
+        keys = new long[buckets * 2];
+        data = new long[buckets * 2];
+        bucketMask = buckets - 1;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // probe
+     * //
+     * // PURPOSE: looks up a position.
+     * //
+     * // PARAMETERS:
+     * //      key - the hash of the position.
+     * //RETURN:
+     * //      return the packed entry of the position, or 0 if it is not stored.
+     * //------------------------------------------------------
+     **/
+    public long probe(long key) {
+        int slot = index(key);
+        for (int i = slot; i < slot + 2; i++) {
+            long entry = data[i];
+            if (entry != 0 && (keys[i] ^ entry) == key)
+                return entry;
+        }
+        return 0;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // store
+     * //
+     * // PURPOSE: saves the result of a search. It goes in the first slot of the
+     * //          bucket if that slot holds the same position or a shallower search,
+     * //          otherwise in the second slot.
+     * //
+     * // PARAMETERS:
+     * //      key - the hash of the position.
+     * //      score - the score found.
+     * //      depth - the depth searched, between 0 and 255.
+     * //      bound - EXACT, LOWER or UPPER.
+     * //      move - the best column found, or -1 if none.
+     * //------------------------------------------------------
+     **/
+    public void store(long key, int score, int depth, int bound, int move) {
+        int slot = index(key);
+        long entry = pack(score, depth, bound, move);
+        long first = data[slot];
+        if (first == 0 || (keys[slot] ^ first) == key || depthOf(first) <= depth) {
+            data[slot] = entry;
+            keys[slot] = key ^ entry;
+        } else {
+            data[slot + 1] = entry;
+            keys[slot + 1] = key ^ entry;
+        }
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // clear
+     * //
+     * // PURPOSE: empties the table.
+     * //------------------------------------------------------
+     **/
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(data, 0);
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // index
+     * //
+     * // PURPOSE: private helper method that finds the first slot of the bucket
+     * //          of a hash. The high bits are used, the low bits being the ones
+     * //          most alike between neighbouring positions.
+     * //
+     * // PARAMETERS:
+     * //      key - the hash of the position.
+     * //RETURN:
+     * //      return the index of the first slot of the bucket.
+     * //------------------------------------------------------
+     **/
+    private int index(long key) {
+        return ((int) (key >>> 32) & bucketMask) << 1;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // pack
+     * //
+     * // PURPOSE: private helper method that packs an entry in one long: the score
+     * //          in the high 32 bits, then the depth, the move and the bound.
+     * //------------------------------------------------------
+     **/
+    private static long pack(int score, int depth, int bound, int move) {
+        return ((long) score << 32) | ((long) (depth & 0xFF) << 16) | ((long) (move & 0xFF) << 8) | bound;
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // scoreOf, depthOf, boundOf, moveOf
+     * //
+     * // PURPOSE: unpack the fields of an entry returned by probe.
+     * //------------------------------------------------------
+     **/
+    public static int scoreOf(long entry) {
+        return (int) (entry >> 32);
+    }
+
+    public static int depthOf(long entry) {
+        return (int) (entry >>> 16) & 0xFF;
+    }
+
+    public static int boundOf(long entry) {
+        return (int) entry & 0xFF;
+    }
+
+    public static int moveOf(long entry) {
+        int move = (int) (entry >>> 8) & 0xFF;
+        return move == 0xFF ? -1 : move;
+    }
+}
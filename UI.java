@@ -2,4 +2,5 @@ public interface UI {
     void lastMove(int lastCol);
     void gameOver(Status winner);
     void setInfo(Human h, int size);
+    void restoreMove(int col, boolean own);
 }
@@ -0,0 +1,123 @@
+import java.util.Arrays;
+
+/**
+ * // CLASS: WinWindows
+ * //
+ * // REMARKS: Every line of four cells ("window") in which a player can win, for
+ * //          one board size, listed once and shared by the whole engine. Cells are
+ * //          numbered like the bits of a BitBoard: col * (size + 1) + row, with
+ * //          row counted from the bottom. The tables are flat int arrays:
+ * //              cells       - the 4 cells of window w are cells[4w .. 4w+3],
+ * //              cellWindows - the windows through cell c are
+ * //                            cellWindows[firstWindow[c] .. firstWindow[c+1]-1].
+ * //          Code that looks for wins, threats or scores can walk these arrays
+ * //          instead of working out bounds and directions by hand.
+ * //
+ * //          For code working on whole BitBoard words, the windows are also kept
+ * //          by direction: steps[d] is the distance between two cells of a window
+ * //          of direction d, and starts[d] has the bit of the first (lowest) cell
+ * //          of every window of that direction set, in the words of a BitBoard.
+ * //
+ * //-----------------------------------------
+ **/
+public final class WinWindows {
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};   //{col, row} steps
+    private static final WinWindows[] TABLES = new WinWindows[13];  //tables of every size
+
+    static {
+        //all sizes are made up front, so forSize is read by every search thread without a lock
+        for (int size = 0; size < TABLES.length; size++) {
+            TABLES[size] = new WinWindows(size);
+        }
+    }
+
+    public final int size;      //size of the board
+    public final int count;     //number of windows
+    public final int[] cells;   //4 cells per window
+    public final int[] firstWindow;     //start of the windows of every cell in cellWindows, plus an end
+    public final int[] cellWindows;     //windows through every cell, cell by cell
+    public final int[] steps;   //distance between the cells of a window, by direction
+    public final long[][] starts;   //first cell of every window, by direction, as BitBoard words
+
+
+    /**
+     * //------------------------------------------------------
+     * // forSize
+     * //
+     * // PURPOSE: gives the tables of a board size.
+     * //
+     * // PARAMETERS:
+     * //      size - the size of the board
+     * //RETURN:
+     * //      return the tables.
+     * //------------------------------------------------------
+     **/
+    public static WinWindows forSize(int size) {
+        return TABLES[size];
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // WinWindows
+     * //
+     * // PURPOSE: private constructor that lists the windows of a size, then
+     * //          counts the windows of every cell and fills the index.
+     * //
+     * // PARAMETERS:
+     * //      size - the size of the board
+     * //------------------------------------------------------
+     **/
+    private WinWindows(int size) {
+        this.size = size;
+        int height = size + 1;
+
+        int[] found = new int[4 * 4 * size * size];
+        int n = 0;
+        for (int col = 0; col < size; col++) {
+            for (int row = 0; row < size; row++) {
+                for (int[] d : DIRECTIONS) {
+                    int endCol = col + 3 * d[0];
+                    int endRow = row + 3 * d[1];
+                    if (endCol >= size || endRow < 0 || endRow >= size)
+                        continue;
+                    for (int k = 0; k < 4; k++) {
+                        found[4 * n + k] = (col + k * d[0]) * height + row + k * d[1];
+                    }
+                    n++;
+                }
+            }
+        }
+        count = n;
+        cells = Arrays.copyOf(found, 4 * n);
+
+        firstWindow = new int[size * height + 1];
+        for (int cell : cells) {
+            firstWindow[cell + 1]++;
+        }
+        for (int c = 0; c < size * height; c++) {
+            firstWindow[c + 1] += firstWindow[c];
+        }
+        cellWindows = new int[4 * n];
+        int[] next = Arrays.copyOf(firstWindow, size * height);
+        for (int w = 0; w < n; w++) {
+            for (int k = 0; k < 4; k++) {
+                cellWindows[next[cells[4 * w + k]]++] = w;
+            }
+        }
+
+        steps = new int[DIRECTIONS.length];
+        starts = new long[DIRECTIONS.length][(size * height + 63) / 64];
+        for (int d = 0; d < DIRECTIONS.length; d++) {
+            steps[d] = DIRECTIONS[d][0] * height + DIRECTIONS[d][1];
+        }
+        for (int w = 0; w < n; w++) {
+            int first = cells[4 * w];
+            int d = 0;
+            while (steps[d] != cells[4 * w + 1] - first) {
+                d++;
+            }
+            starts[d][first >>> 6] |= 1L << (first & 63);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+import java.util.Random;
+
+/**
+ * // CLASS: Zobrist
+ * //
+ * // REMARKS: Random keys used to hash a BitBoard position. Every (player, bit)
+ * //          pair has its own key and the hash of a position is the XOR of the
+ * //          keys of its pieces, so a move updates the hash with one XOR. The keys
+ * //          come from a fixed seed, so the same position has the same hash in
+ * //          every run and every process.
+ * //
+ * //-----------------------------------------
+ **/
+public final class Zobrist {
+    private static final int MAX_BITS = 12 * 13;    //bits of the largest board, sentinels included
+    private static final long SEED = 0x2150C4L;     //fixed so hashes can be saved to disk
+
+    private static final long[] ONE_KEYS = new long[MAX_BITS];  //keys for the pieces of player ONE
+    private static final long[] TWO_KEYS = new long[MAX_BITS];  //keys for the pieces of player TWO
+    private static final long[] SIZE_KEYS = new long[13];   //starting hash for every board size
+    private static final long SIDE_KEY; //mixed in when player TWO is to move
+
+    static {
+        Random random = new Random(SEED);
+        for (int i = 0; i < MAX_BITS; i++) {
+            ONE_KEYS[i] = random.nextLong();
+            TWO_KEYS[i] = random.nextLong();
+        }
+        for (int i = 0; i < SIZE_KEYS.length; i++) {
+            SIZE_KEYS[i] = random.nextLong();
+        }
+        SIDE_KEY = random.nextLong();
+    }
+
+
+    private Zobrist() {
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // key
+     * //
+     * // PARAMETERS:
+     * //      status - the player owning the piece, ONE or TWO.
+     * //      bit - the bit of the piece in the BitBoard layout.
+     * //RETURN:
+     * //      return the key of that piece.
+     * //------------------------------------------------------
+     **/
+    public static long key(Status status, int bit) {
+        return status == Status.ONE ? ONE_KEYS[bit] : TWO_KEYS[bit];
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // empty
+     * //
+     * // PARAMETERS:
+     * //      size - the size of the board
+     * //RETURN:
+     * //      return the hash of an empty board of that size.
+     * //------------------------------------------------------
+     **/
+    public static long empty(int size) {
+        return SIZE_KEYS[size];
+    }
+
+
+    /**
+     * //------------------------------------------------------
+     * // withSide
+     * //
+     * // PARAMETERS:
+     * //      hash - the hash of the pieces on the board.
+     * //      side - the player to move.
+     * //RETURN:
+     * //      return a hash that also tells who is to move.
+     * //------------------------------------------------------
+     **/
+    public static long withSide(long hash, Status side) {
+        return side == Status.TWO ? hash ^ SIDE_KEY : hash;
+    }
+}
@@ -0,0 +1,78 @@
+package connect4bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * AIplayer move selection: the pattern checks (getMove, defensive,
+ * offensive) and a fixed-depth search without a transposition table.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AIBenchmark {
+    @Param({"6", "7", "8", "9", "10", "11", "12"})
+    int size;
+
+    @Param({"0", "1", "2", "3"})
+    int position;
+
+    @Param({"4"})
+    int depth;
+
+    private Object pattern;
+    private Object search;
+
+    @Setup
+    public void setup() throws Throwable {
+        pattern = Engine.NEW_AI_PLAYER.invoke(null, new Random(1));
+        Object engine = Engine.NEW_SEARCH_ENGINE.invoke(depth, 0L, null);
+        search = Engine.NEW_AI_PLAYER.invoke(engine, new Random(1));
+        load(pattern);
+        load(search);
+    }
+
+    private void load(Object ai) throws Throwable {
+        Engine.SET_INFO.invoke(ai, size, null);
+        Object side = Engine.ONE;
+        for (int col : Positions.moves(size, position)) {
+            Engine.ADD_BOARD.invoke(ai, col, side);
+            side = Engine.other(side);
+        }
+    }
+
+    @Benchmark
+    public int patternGetMove() throws Throwable {
+        return (int) Engine.GET_MOVE.invoke(pattern);
+    }
+
+    @Benchmark
+    public int defensive() throws Throwable {
+        return (int) Engine.DEFENSIVE.invoke(pattern);
+    }
+
+    @Benchmark
+    public int offensive() throws Throwable {
+        return (int) Engine.OFFENSIVE.invoke(pattern);
+    }
+
+    @Benchmark
+    public int searchGetMove() throws Throwable {
+        return (int) Engine.GET_MOVE.invoke(search);
+    }
+}
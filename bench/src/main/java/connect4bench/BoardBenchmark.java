@@ -0,0 +1,83 @@
+package connect4bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Board primitives: finding where a piece lands, dropping and taking back a
+ * piece in every open column, and looking for four in a row.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+    @Param({"6", "7", "8", "9", "10", "11", "12"})
+    int size;
+
+    @Param({"0", "1", "2", "3"})
+    int position;
+
+    private Object board;
+    private Object heights;
+
+    @Setup
+    public void setup() throws Throwable {
+        board = Positions.board(size, position);
+        heights = Engine.NEW_COLUMN_HEIGHTS.invoke(size);
+        for (int col : Positions.moves(size, position)) {
+            Engine.HEIGHTS_PUSH.invoke(heights, col);
+        }
+    }
+
+    @Benchmark
+    public int drop() throws Throwable {
+        int sum = 0;
+        for (int col = 0; col < size; col++) {
+            sum += (int) Engine.DROP.invoke(board, col);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int columnHeightsDrop() throws Throwable {
+        int sum = 0;
+        for (int col = 0; col < size; col++) {
+            sum += (int) Engine.HEIGHTS_DROP.invoke(heights, col);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int playCheckUndo() throws Throwable {
+        int wins = 0;
+        int legal = (int) Engine.LEGAL_MOVES.invoke(board);
+        for (int col = 0; col < size; col++) {
+            if ((legal & (1 << col)) == 0)
+                continue;
+            Engine.PLAY.invoke(board, col, Engine.ONE);
+            if ((boolean) Engine.IS_WIN_AT.invoke(board, col))
+                wins++;
+            Engine.UNDO.invoke(board, col);
+        }
+        return wins;
+    }
+
+    @Benchmark
+    public boolean isWinFullScan() throws Throwable {
+        return (boolean) Engine.IS_WIN.invoke(board, Engine.ONE) | (boolean) Engine.IS_WIN.invoke(board, Engine.TWO);
+    }
+}
@@ -0,0 +1,110 @@
+package connect4bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Proxy;
+import java.util.Random;
+
+/**
+ * Handles on the game classes. The game lives in the default package, which
+ * code in a named package (as JMH requires) cannot name, so the benchmarks
+ * reach it through method handles. They are static finals, so the JIT inlines
+ * them like direct calls.
+ */
+final class Engine {
+    static final Class<?> STATUS = load("Status");
+    static final Class<?> BIT_BOARD = load("BitBoard");
+    static final Class<?> COLUMN_HEIGHTS = load("ColumnHeights");
+    static final Class<?> PLAYER = load("Player");
+    static final Class<?> GAME_LOGIC = load("GameLogic");
+    static final Class<?> GAME = load("Game");
+    static final Class<?> AI_PLAYER = load("AIplayer");
+    static final Class<?> SEARCH = load("Search");
+    static final Class<?> SEARCH_ENGINE = load("SearchEngine");
+    static final Class<?> TRANSPOSITION_TABLE = load("TranspositionTable");
+    static final Class<?> EVALUATOR = load("Evaluator");
+
+    static final Object ONE = status("ONE");
+    static final Object TWO = status("TWO");
+
+    static final MethodHandle NEW_BIT_BOARD = constructor(BIT_BOARD, int.class);
+    static final MethodHandle PLAY = method(BIT_BOARD, "play", int.class, int.class, STATUS);
+    static final MethodHandle UNDO = method(BIT_BOARD, "undo", void.class, int.class);
+    static final MethodHandle DROP = method(BIT_BOARD, "drop", int.class, int.class);
+    static final MethodHandle IS_WIN = method(BIT_BOARD, "isWin", boolean.class, STATUS);
+    static final MethodHandle IS_WIN_AT = method(BIT_BOARD, "isWinAt", boolean.class, int.class);
+    static final MethodHandle LEGAL_MOVES = method(BIT_BOARD, "legalMoves", int.class);
+
+    static final MethodHandle NEW_COLUMN_HEIGHTS = constructor(COLUMN_HEIGHTS, int.class);
+    static final MethodHandle HEIGHTS_DROP = method(COLUMN_HEIGHTS, "drop", int.class, int.class);
+    static final MethodHandle HEIGHTS_PUSH = method(COLUMN_HEIGHTS, "push", int.class, int.class);
+
+    static final MethodHandle NEW_GAME = constructor(GAME, PLAYER, PLAYER, int.class, boolean.class);
+    static final MethodHandle START = method(GAME, "start", void.class);
+    static final MethodHandle SET_ANSWER = method(GAME, "setAnswer", void.class, int.class);
+    static final MethodHandle CHECK_WIN = method(GAME, "checkWin", boolean.class);
+    static final MethodHandle GET_WINNER = method(GAME, "getWinner", STATUS);
+
+    static final MethodHandle NEW_AI_PLAYER = constructor(AI_PLAYER, SEARCH, Random.class);
+    static final MethodHandle SET_INFO = method(AI_PLAYER, "setInfo", void.class, int.class, GAME_LOGIC);
+    static final MethodHandle ADD_BOARD = method(AI_PLAYER, "addBoard", void.class, int.class, STATUS);
+    static final MethodHandle GET_MOVE = method(AI_PLAYER, "getMove", int.class);
+    static final MethodHandle DEFENSIVE = method(AI_PLAYER, "defensive", int.class);
+    static final MethodHandle OFFENSIVE = method(AI_PLAYER, "offensive", int.class);
+
+    static final MethodHandle NEW_SEARCH_ENGINE = constructor(SEARCH_ENGINE, int.class, long.class, TRANSPOSITION_TABLE);
+    static final MethodHandle NEW_TRANSPOSITION_TABLE = constructor(TRANSPOSITION_TABLE, int.class);
+
+    static final MethodHandle NEW_EVALUATOR = constructor(EVALUATOR);
+    static final MethodHandle EVALUATE = method(EVALUATOR, "evaluate", int.class, BIT_BOARD, STATUS);
+    static final MethodHandle EVALUATE_SCALAR = method(EVALUATOR, "evaluateScalar", int.class, BIT_BOARD, STATUS);
+
+    private Engine() {
+    }
+
+    /**
+     * A player that never moves on its own, so a benchmark can drive the
+     * game through setAnswer.
+     */
+    static Object passivePlayer() {
+        return Proxy.newProxyInstance(PLAYER.getClassLoader(), new Class<?>[]{PLAYER}, (proxy, m, args) -> null);
+    }
+
+    static Object other(Object status) {
+        return status == ONE ? TWO : ONE;
+    }
+
+    private static Class<?> load(String name) {
+        try {
+            return Class.forName(name);
+        } catch (ClassNotFoundException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object status(String name) {
+        return Enum.valueOf((Class) STATUS, name);
+    }
+
+    private static MethodHandle constructor(Class<?> owner, Class<?>... params) {
+        try {
+            return lookup(owner).findConstructor(owner, MethodType.methodType(void.class, params));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle method(Class<?> owner, String name, Class<?> returns, Class<?>... params) {
+        try {
+            return lookup(owner).findVirtual(owner, name, MethodType.methodType(returns, params));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandles.Lookup lookup(Class<?> owner) throws IllegalAccessException {
+        return MethodHandles.privateLookupIn(owner, MethodHandles.lookup());
+    }
+}
@@ -0,0 +1,71 @@
+package connect4bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Scoring a position where the search stops: the word-parallel evaluation
+ * against the window-by-window one it replaced. The setup first checks that
+ * both give the same score, for both players, on every position on the way to
+ * the one benchmarked.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluatorBenchmark {
+    @Param({"6", "7", "8", "9", "10", "11", "12"})
+    int size;
+
+    @Param({"0", "1", "2", "3"})
+    int position;
+
+    private Object board;
+    private Object evaluator;
+
+    @Setup
+    public void setup() throws Throwable {
+        evaluator = Engine.NEW_EVALUATOR.invoke();
+        board = Engine.NEW_BIT_BOARD.invoke(size);
+        Object side = Engine.ONE;
+        check();
+        for (int col : Positions.moves(size, position)) {
+            Engine.PLAY.invoke(board, col, side);
+            side = Engine.other(side);
+            check();
+        }
+    }
+
+    private void check() throws Throwable {
+        for (Object side : new Object[]{Engine.ONE, Engine.TWO}) {
+            int fast = (int) Engine.EVALUATE.invoke(evaluator, board, side);
+            int plain = (int) Engine.EVALUATE_SCALAR.invoke(evaluator, board, side);
+            if (fast != plain)
+                throw new IllegalStateException("evaluate gave " + fast + ", evaluateScalar " + plain
+                        + " at size " + size);
+        }
+    }
+
+    @Benchmark
+    public int evaluate() throws Throwable {
+        return (int) Engine.EVALUATE.invoke(evaluator, board, Engine.ONE);
+    }
+
+    @Benchmark
+    public int evaluateScalar() throws Throwable {
+        return (int) Engine.EVALUATE_SCALAR.invoke(evaluator, board, Engine.ONE);
+    }
+}
@@ -0,0 +1,49 @@
+package connect4bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Whole AI-vs-AI games through Game, the way Arena plays them: games per
+ * second for a search player against the pattern player. Every invocation
+ * replays the same seeded game.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FullGameBenchmark {
+    @Param({"6", "7", "8", "9", "10", "11", "12"})
+    int size;
+
+    @Param({"0", "2"})
+    int depth;
+
+    @Param({"1"})
+    long seed;
+
+    @Benchmark
+    public Object fullGame() throws Throwable {
+        Random random = new Random(seed);
+        Object one = depth == 0
+                ? Engine.NEW_AI_PLAYER.invoke(null, random)
+                : Engine.NEW_AI_PLAYER.invoke(Engine.NEW_SEARCH_ENGINE.invoke(depth, 0L, null), random);
+        Object two = Engine.NEW_AI_PLAYER.invoke(null, random);
+        Object game = Engine.NEW_GAME.invoke(one, two, size, true);
+        Engine.START.invoke(game);
+        return Engine.GET_WINNER.invoke(game);
+    }
+}
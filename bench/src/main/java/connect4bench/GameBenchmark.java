@@ -0,0 +1,68 @@
+package connect4bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Game.setAnswer and Game.checkWin, driven by two players that never move
+ * on their own.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+    @Param({"6", "7", "8", "9", "10", "11", "12"})
+    int size;
+
+    @Param({"0", "1", "2", "3"})
+    int position;
+
+    private int[] moves;
+    private Object one;
+    private Object two;
+    private Object game;
+
+    @Setup
+    public void setup() throws Throwable {
+        moves = Positions.moves(size, position);
+        one = Engine.passivePlayer();
+        two = Engine.passivePlayer();
+        game = newGame();
+    }
+
+    private Object newGame() throws Throwable {
+        Object g = Engine.NEW_GAME.invoke(one, two, size, true);
+        Engine.START.invoke(g);
+        for (int col : moves) {
+            Engine.SET_ANSWER.invoke(g, col);
+        }
+        return g;
+    }
+
+    /**
+     * A new game plus every setAnswer (and so checkWin) of the position.
+     */
+    @Benchmark
+    public Object setAnswerAllMoves() throws Throwable {
+        return newGame();
+    }
+
+    @Benchmark
+    public boolean checkWin() throws Throwable {
+        return (boolean) Engine.CHECK_WIN.invoke(game);
+    }
+}
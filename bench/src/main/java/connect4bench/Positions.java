@@ -0,0 +1,60 @@
+package connect4bench;
+
+import java.util.Random;
+
+/**
+ * The fixed positions the benchmarks run on. Position p of a board size is
+ * the board filled to (p + 1) fifths by a seeded random game in which no one
+ * has won yet, so every run measures the same boards.
+ */
+final class Positions {
+    static final int COUNT = 4;
+
+    private Positions() {
+    }
+
+    /**
+     * The moves leading to a position, player ONE moving first.
+     */
+    static int[] moves(int size, int position) throws Throwable {
+        Random random = new Random(size * 31L + position);
+        int plies = size * size * (position + 1) / 5;
+        int[] moves = new int[plies];
+
+        Object board = Engine.NEW_BIT_BOARD.invoke(size);
+        Object side = Engine.ONE;
+        int played = 0;
+        int tried = 0;
+        while (played < plies) {
+            int legal = (int) Engine.LEGAL_MOVES.invoke(board);
+            if ((tried & legal) == legal)
+                throw new IllegalStateException("no quiet move left at size " + size);
+            int col = random.nextInt(size);
+            if ((legal & (1 << col)) == 0)
+                continue;
+            Engine.PLAY.invoke(board, col, side);
+            if ((boolean) Engine.IS_WIN_AT.invoke(board, col)) {
+                Engine.UNDO.invoke(board, col);
+                tried |= 1 << col;
+                continue;
+            }
+            moves[played++] = col;
+            side = Engine.other(side);
+            tried = 0;
+        }
+        return moves;
+    }
+
+    /**
+     * A board holding a position.
+     */
+    static Object board(int size, int position) throws Throwable {
+        Object board = Engine.NEW_BIT_BOARD.invoke(size);
+        Object side = Engine.ONE;
+        for (int col : moves(size, position)) {
+            Engine.PLAY.invoke(board, col, side);
+            side = Engine.other(side);
+        }
+        return board;
+    }
+}